@@ -1,33 +1,105 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.dto.Page;
+import ru.yandex.practicum.filmorate.dto.PageCursor;
 import ru.yandex.practicum.filmorate.dto.film.FilmDto;
+import ru.yandex.practicum.filmorate.dto.film.FilmImportResultDto;
+import ru.yandex.practicum.filmorate.dto.film.FilmSuggestionDto;
+import ru.yandex.practicum.filmorate.dto.film.LikeOperationDto;
+import ru.yandex.practicum.filmorate.dto.film.LikeOperationResultDto;
 import ru.yandex.practicum.filmorate.dto.film.NewFilmRequest;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Slf4j
 @RestController
 @RequestMapping("/films")
 public class FilmController {
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final FilmService filmService;
+    private final FilmImportService filmImportService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public FilmController(FilmService filmService) {
+    public FilmController(FilmService filmService, FilmImportService filmImportService, ObjectMapper objectMapper) {
         this.filmService = filmService;
+        this.filmImportService = filmImportService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    public List<Film> getAllFilms() {
-        log.info("Получен запрос GET /films");
-        List<Film> films = filmService.getAllFilms();
-        log.info("Отправлен ответ GET /films. Всего {} фильмов: {}", films.size(), films);
+    public ResponseEntity<StreamingResponseBody> getAllFilms(
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос GET /films?cursor={}&limit={}", cursor, limit);
+        boolean ndjson = accept != null && accept.contains(APPLICATION_NDJSON.toString());
+        Page<Film> page = cursor != null || limit != null
+                ? filmService.getFilmsPage(cursor, limit != null ? limit : PageCursor.DEFAULT_LIMIT)
+                : null;
+        Consumer<Consumer<Film>> source = page != null ? page.getItems()::forEach : filmService::streamAllFilms;
+        StreamingResponseBody body = outputStream -> {
+            AtomicLong count = new AtomicLong();
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                if (ndjson) {
+                    generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+                } else {
+                    generator.writeStartArray();
+                }
+                source.accept(film -> {
+                    try {
+                        generator.writeObject(film);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                        count.incrementAndGet();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            }
+            log.info("Отправлен ответ GET /films. Всего {} фильмов", count.get());
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(ndjson ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON);
+        if (page != null && page.getNextCursor() != null) {
+            response.header(PageCursor.HEADER, page.getNextCursor());
+        }
+        return response.body(body);
+    }
+
+    @GetMapping(params = "ids")
+    public List<Film> getFilmsByIds(@RequestParam(name = "ids") List<Long> ids) {
+        log.info("Получен запрос GET /films?ids=... Всего {} id", ids.size());
+        List<Film> films = filmService.getFilmsByIds(ids);
+        log.info("Отправлен ответ GET /films?ids=... Всего {} фильмов", films.size());
         return films;
     }
 
@@ -62,6 +134,15 @@ public class FilmController {
         return film;
     }
 
+    @GetMapping("/{id}/similar")
+    public List<Film> getSimilarFilms(@PathVariable Long id,
+                                      @RequestParam(defaultValue = "10") int count) {
+        log.info("Получен запрос GET /films/{}/similar?count={}", id, count);
+        List<Film> films = filmService.getSimilarFilms(id, count);
+        log.info("Отправлен ответ GET /films/{}/similar. Всего {} фильмов", id, films.size());
+        return films;
+    }
+
     @PutMapping("/{id}/like/{userId}")
     public void addLike(@PathVariable Long id, @PathVariable Long userId) {
         log.info("Получен запрос PUT /films/{}/like/{}", id, userId);
@@ -76,6 +157,25 @@ public class FilmController {
         log.info("Пользователь {} удалил лайк у фильма {}", userId, id);
     }
 
+    @PostMapping("/bulk")
+    public FilmImportResultDto importFilms(InputStream body) throws IOException {
+        log.info("Получен запрос POST /films/bulk");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            FilmImportResultDto result = filmImportService.importFilms(reader);
+            log.info("Отправлен ответ POST /films/bulk. Загружено {}, отклонено {}",
+                    result.getImported(), result.getFailed());
+            return result;
+        }
+    }
+
+    @PostMapping("/likes/batch")
+    public List<LikeOperationResultDto> applyLikes(@RequestBody List<LikeOperationDto> likes) {
+        log.info("Получен запрос POST /films/likes/batch. Всего {} операций", likes.size());
+        List<LikeOperationResultDto> results = filmService.applyLikes(likes);
+        log.info("Отправлен ответ POST /films/likes/batch. Всего {} результатов", results.size());
+        return results;
+    }
+
     @GetMapping("/popular")
     public List<Film> getPopularFilms(@RequestParam(name = "count", defaultValue = "10") Integer count,
                                       @RequestParam(name = "genreId", required = false) Optional<Long> genreId,
@@ -87,7 +187,16 @@ public class FilmController {
         return popularFilms;
     }
 
-    @GetMapping("/common")
+    @GetMapping(value = "/common", params = "userIds")
+    public List<Film> getCommonFilmsOfUsers(@RequestParam(name = "userIds") List<Long> userIds,
+                                            @RequestParam(name = "minUsers", required = false) Integer minUsers) {
+        log.info("Получен запрос GET /films/common?userIds={}&minUsers={}", userIds, minUsers);
+        List<Film> commonFilms = filmService.getCommonFilms(userIds, minUsers);
+        log.info("Отправлен ответ GET /films/common. Всего {} фильмов", commonFilms.size());
+        return commonFilms;
+    }
+
+    @GetMapping(value = "/common", params = {"userId", "friendId"})
     public List<Film> getCommonFilms(@RequestParam(name = "userId") Long userId,
                                      @RequestParam(name = "friendId") Long friendId) {
         log.info("Получен запрос GET /films/common?userId={}&friendId={}", userId, friendId);
@@ -110,11 +219,19 @@ public class FilmController {
     @GetMapping("/search")
     public List<Film> getSearchFilmsBy(
             @RequestParam String query,
-            @RequestParam String by) {
-        log.info("Получен запрос GET /films/search?query={}&by={}", query, by);
-        final List<Film> searchResult = filmService.searchFilmBy(query, by);
+            @RequestParam String by,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        log.info("Получен запрос GET /films/search?query={}&by={}&fuzzy={}", query, by, fuzzy);
+        final List<Film> searchResult = filmService.searchFilmBy(query, by, fuzzy);
         log.info("Отправлен ответ GET /films/search?query={}&by={}. Всего {} фильмов: {}",
                 query, by, searchResult.size(), searchResult);
         return searchResult;
     }
+
+    @GetMapping("/search/suggest")
+    public List<FilmSuggestionDto> suggestFilms(@RequestParam String prefix,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        log.debug("Получен запрос GET /films/search/suggest?prefix={}&limit={}", prefix, limit);
+        return filmService.suggestFilms(prefix, limit);
+    }
 }
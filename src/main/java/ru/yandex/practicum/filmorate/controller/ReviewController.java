@@ -3,7 +3,9 @@ package ru.yandex.practicum.filmorate.controller;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.dto.Page;
 import ru.yandex.practicum.filmorate.dto.reviews.NewReviewRequestDto;
 import ru.yandex.practicum.filmorate.dto.reviews.ReviewResponseDto;
 import ru.yandex.practicum.filmorate.dto.reviews.UpdateReviewRequestDto;
@@ -42,13 +44,14 @@ public class ReviewController {
     }
 
     @GetMapping
-    public List<ReviewResponseDto> getReviews(@RequestParam(defaultValue = "0") Long filmId,
-                                              @RequestParam(defaultValue = "10") int count) {
-        log.info("Получен запрос GET /reviews для фильма с id {} в количестве {}", filmId, count);
-        final List<ReviewResponseDto> reviews = reviewService.getReviews(filmId, count);
+    public ResponseEntity<List<ReviewResponseDto>> getReviews(@RequestParam(defaultValue = "0") Long filmId,
+                                                              @RequestParam(defaultValue = "10") int count,
+                                                              @RequestParam(required = false) String cursor) {
+        log.info("Получен запрос GET /reviews для фильма с id {} в количестве {}, курсор {}", filmId, count, cursor);
+        final Page<ReviewResponseDto> reviews = reviewService.getReviews(filmId, count, cursor);
         log.info("Отправлен ответ GET /reviews для фильма с id {}. Всего {} отзывов: {}", filmId,
-                reviews.size(), reviews);
-        return reviews;
+                reviews.getItems().size(), reviews.getItems());
+        return reviews.toResponse();
     }
 
     @GetMapping({"/{id}"})
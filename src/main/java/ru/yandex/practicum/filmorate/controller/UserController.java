@@ -1,15 +1,28 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.dto.Page;
+import ru.yandex.practicum.filmorate.dto.PageCursor;
+import ru.yandex.practicum.filmorate.dto.user.RecommendationBatchRequest;
 import ru.yandex.practicum.filmorate.model.Event;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.enums.RecommendationMode;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.RecommendationBatchService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @Slf4j
@@ -19,6 +32,8 @@ import java.util.List;
 public class UserController {
     private final UserService userService;
     private final FilmService filmService;
+    private final RecommendationBatchService recommendationBatchService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public List<User> getAllUsers() {
@@ -74,12 +89,36 @@ public class UserController {
     }
 
     @GetMapping("/{id}/friends")
-    public List<User> getFriends(@PathVariable Long id) {
-        log.info("Получен запрос GET /users/{}/friends", id);
-        List<User> friends = userService.getFriends(id);
-        log.info("Отправлен ответ GET /users/{}/friends. Всего {} друзей: {}", id, friends.size(),
-                friends);
-        return friends;
+    public ResponseEntity<List<User>> getFriends(@PathVariable Long id,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос GET /users/{}/friends?cursor={}&limit={}", id, cursor, limit);
+        if (cursor == null && limit == null) {
+            List<User> friends = userService.getFriends(id);
+            log.info("Отправлен ответ GET /users/{}/friends. Всего {} друзей: {}", id, friends.size(),
+                    friends);
+            return ResponseEntity.ok(friends);
+        }
+        Page<User> page = userService.getFriends(id, cursor, limit != null ? limit : PageCursor.DEFAULT_LIMIT);
+        log.info("Отправлен ответ GET /users/{}/friends. Всего {} друзей на странице", id, page.getItems().size());
+        return page.toResponse();
+    }
+
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable Long id,
+                                           @RequestParam(name = "count", defaultValue = "10") int count) {
+        log.info("Получен запрос GET /users/{}/friends/suggestions?count={}", id, count);
+        List<User> suggestions = userService.getFriendSuggestions(id, count);
+        log.info("Отправлен ответ GET /users/{}/friends/suggestions. Всего {} пользователей", id, suggestions.size());
+        return suggestions;
+    }
+
+    @GetMapping("/{id}/path/{otherId}")
+    public List<User> getPath(@PathVariable Long id, @PathVariable Long otherId) {
+        log.info("Получен запрос GET /users/{}/path/{}", id, otherId);
+        List<User> path = userService.getPath(id, otherId);
+        log.info("Отправлен ответ GET /users/{}/path/{}. Длина цепочки: {}", id, otherId, path.size() - 1);
+        return path;
     }
 
     @GetMapping("/{id}/friends/common/{otherId}")
@@ -92,18 +131,50 @@ public class UserController {
     }
 
     @GetMapping("/{id}/feed")
-    public List<Event> getUserFeed(@PathVariable Long id) {
-        log.info("Получен запрос GET /users/{}/feed", id);
-        List<Event> events = userService.getUserEvents(id);
-        log.info("Отправлен ответ GET /users/{}/feed. Всего {} событий: {}", id, events.size(), events);
-        return events;
+    public ResponseEntity<List<Event>> getUserFeed(@PathVariable Long id,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limit) {
+        log.info("Получен запрос GET /users/{}/feed?cursor={}&limit={}", id, cursor, limit);
+        if (cursor == null && limit == null) {
+            List<Event> events = userService.getUserEvents(id);
+            log.info("Отправлен ответ GET /users/{}/feed. Всего {} событий: {}", id, events.size(), events);
+            return ResponseEntity.ok(events);
+        }
+        Page<Event> page = userService.getUserEvents(id, cursor, limit != null ? limit : PageCursor.DEFAULT_LIMIT);
+        log.info("Отправлен ответ GET /users/{}/feed. Всего {} событий на странице", id, page.getItems().size());
+        return page.toResponse();
     }
     @GetMapping("/{id}/recommendations")
-    public List<Film> getRecommendations(@PathVariable Long id) {
-        log.info("Получен запрос GET /users/{}/recommendations", id);
-        final List<Film> recommendedFilms = filmService.getRecommendations(id);
+    public List<Film> getRecommendations(@PathVariable Long id,
+                                         @RequestParam(defaultValue = "user") RecommendationMode mode) {
+        log.info("Получен запрос GET /users/{}/recommendations?mode={}", id, mode);
+        final List<Film> recommendedFilms = filmService.getRecommendations(id, mode);
         log.info("Отправлен ответ GET /users/{}/recommendations. Всего {} рекомендаций: {}",
                 id, recommendedFilms.size(), recommendedFilms);
         return recommendedFilms;
     }
-}
\ No newline at end of file
+
+    @PostMapping("/recommendations/batch")
+    public ResponseEntity<StreamingResponseBody> getRecommendationsBatch(
+            @RequestBody RecommendationBatchRequest request) {
+        List<Long> userIds = recommendationBatchService.resolveUserIds(request);
+        log.info("Получен запрос POST /users/recommendations/batch. Всего {} пользователей, режим {}",
+                userIds.size(), request.getMode());
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+                recommendationBatchService.streamRecommendations(userIds, request, recommendations -> {
+                    try {
+                        generator.writeObject(recommendations);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+}
@@ -9,8 +9,11 @@ import ru.yandex.practicum.filmorate.exception.NotFoundException;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 @RequiredArgsConstructor
@@ -32,6 +35,13 @@ public class BaseRepository<T> {
         return jdbc.query(query, mapper, params);
     }
 
+    protected Set<Long> findExistingIds(String query, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(jdbc.queryForList(query, Long.class, (Object) ids.toArray(new Long[0])));
+    }
+
     protected boolean delete(String query, Object... params) {
         int rowsDeleted = jdbc.update(query, params);
         return rowsDeleted > 0;
@@ -4,15 +4,9 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.dal.mappers.DirectorRowMapper;
 import ru.yandex.practicum.filmorate.model.Director;
-import ru.yandex.practicum.filmorate.model.Film;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Repository
 public class DirectorRepository extends BaseRepository<Director> {
@@ -55,27 +49,4 @@ public class DirectorRepository extends BaseRepository<Director> {
         );
         return director;
     }
-
-    public void load(List<Film> films) {
-        String inSql = String.join(",", Collections.nCopies(films.size(), "?"));
-        Map<Long, Film> filmById = films.stream().collect(Collectors.toMap(Film::getId, film -> film));
-
-        String sqlQuery = "SELECT d.director_id, d.name, db.film_id FROM directors d " +
-                "JOIN directed_by db ON d.director_id = db.director_id " +
-                "WHERE db.film_id IN (" + inSql + ")";
-
-        jdbc.query(sqlQuery, (ResultSet rs) -> {
-            Film film = filmById.get(rs.getLong("film_id"));
-            if (film != null) {
-                film.getDirectors().add(makeDirector(rs));
-            }
-        }, films.stream().map(Film::getId).toArray());
-    }
-
-    private Director makeDirector(ResultSet rs) throws SQLException {
-        Director director = Director.builder().build();
-        director.setId(rs.getLong("director_id"));
-        director.setName(rs.getString("name"));
-        return director;
-    }
 }
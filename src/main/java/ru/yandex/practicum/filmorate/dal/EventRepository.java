@@ -3,9 +3,11 @@ package ru.yandex.practicum.filmorate.dal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.dal.mappers.EventRowMapper;
 import ru.yandex.practicum.filmorate.model.Event;
 
+import java.sql.PreparedStatement;
 import java.util.List;
 
 @Repository
@@ -14,6 +16,10 @@ public class EventRepository {
     private static final String SAVE_EVENT = "INSERT INTO events " +
             "(timestamp, user_id, event_type, operation, entity_id) VALUES (?, ?, ?, ?, ?)";
     private static final String FIND_EVENT_BY_USER_ID = "SELECT * FROM events WHERE user_id = ?";
+    private static final String FIND_EVENT_PAGE_BY_USER_ID = "SELECT * FROM events " +
+            "WHERE user_id = ? AND event_id > ? " +
+            "ORDER BY event_id " +
+            "LIMIT ?";
 
     private final JdbcTemplate jdbcTemplate;
 
@@ -27,7 +33,22 @@ public class EventRepository {
                 event.getOperation().name(), event.getEntityId());
     }
 
+    @Transactional
+    public void saveAll(List<Event> events) {
+        jdbcTemplate.batchUpdate(SAVE_EVENT, events, events.size(), (PreparedStatement ps, Event event) -> {
+            ps.setLong(1, event.getTimestamp());
+            ps.setLong(2, event.getUserId());
+            ps.setString(3, event.getEventType().name());
+            ps.setString(4, event.getOperation().name());
+            ps.setLong(5, event.getEntityId());
+        });
+    }
+
     public List<Event> getUserEvents(Long userId) {
         return jdbcTemplate.query(FIND_EVENT_BY_USER_ID, new EventRowMapper(), userId);
     }
+
+    public List<Event> getUserEvents(long userId, long afterEventId, int limit) {
+        return jdbcTemplate.query(FIND_EVENT_PAGE_BY_USER_ID, new EventRowMapper(), userId, afterEventId, limit);
+    }
 }
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.dal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.enums.SearchBackend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Repository
+public class FilmFullTextRepository {
+    private static final String[][] INDEXED_COLUMNS = {{"FILMS", "NAME"}, {"DIRECTORS", "NAME"}};
+    private static final String SEARCH_BY_TITLE = "SELECT CAST(ft.KEYS[1] AS BIGINT) FROM %s(?, 0, 0) ft " +
+            "WHERE ft.\"TABLE\" = 'FILMS'";
+    private static final String SEARCH_BY_DIRECTOR = "SELECT db.film_id FROM %s(?, 0, 0) ft " +
+            "JOIN directed_by db ON db.director_id = CAST(ft.KEYS[1] AS BIGINT) " +
+            "WHERE ft.\"TABLE\" = 'DIRECTORS'";
+    private static final String RANK_FILMS = "SELECT f.film_id FROM films f WHERE f.film_id IN (%s) " +
+            "ORDER BY COALESCE(f.rate, 0) DESC, f.film_id";
+
+    private final JdbcTemplate jdbc;
+    private final SearchBackend backend;
+
+    public FilmFullTextRepository(JdbcTemplate jdbc,
+                                  @Value("${filmorate.search.backend:memory}") SearchBackend backend) {
+        this.jdbc = jdbc;
+        this.backend = backend;
+    }
+
+    public boolean isEnabled() {
+        return backend != SearchBackend.memory;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        String schema = backend == SearchBackend.lucene ? "FTL" : "FT";
+        String initClass = backend == SearchBackend.lucene ? "org.h2.fulltext.FullTextLucene" : "org.h2.fulltext.FullText";
+        jdbc.execute("CREATE ALIAS IF NOT EXISTS " + schema + "_INIT FOR '" + initClass + ".init'");
+        jdbc.execute("CALL " + schema + "_INIT()");
+        for (String[] column : INDEXED_COLUMNS) {
+            Integer existing = jdbc.queryForObject("SELECT COUNT(*) FROM " + schema + ".INDEXES " +
+                    "WHERE \"SCHEMA\" = 'PUBLIC' AND \"TABLE\" = ?", Integer.class, column[0]);
+            if (existing == null || existing == 0) {
+                jdbc.update("CALL " + schema + "_CREATE_INDEX('PUBLIC', ?, ?)", column[0], column[1]);
+            }
+        }
+        log.info("Полнотекстовый поиск {} подключен к таблицам films и directors", schema);
+    }
+
+    public List<Long> search(String query, boolean byTitle, boolean byDirector) {
+        String text = toFullTextQuery(query);
+        if (text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String function = backend == SearchBackend.lucene ? "FTL_SEARCH_DATA" : "FT_SEARCH_DATA";
+        List<String> sources = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (byTitle) {
+            sources.add(String.format(SEARCH_BY_TITLE, function));
+            params.add(text);
+        }
+        if (byDirector) {
+            sources.add(String.format(SEARCH_BY_DIRECTOR, function));
+            params.add(text);
+        }
+        String sql = String.format(RANK_FILMS, String.join(" UNION ", sources));
+        return jdbc.queryForList(sql, Long.class, params.toArray());
+    }
+
+    private String toFullTextQuery(String query) {
+        List<String> words = Arrays.stream(query.split("\\s+"))
+                .map(word -> word.replaceAll("[^\\p{L}\\p{N}]", ""))
+                .filter(word -> !word.isEmpty())
+                .toList();
+        if (backend == SearchBackend.lucene) {
+            return words.stream()
+                    .map(word -> word.toLowerCase() + "*")
+                    .collect(Collectors.joining(" AND "));
+        }
+        return String.join(" ", words);
+    }
+}
@@ -1,9 +1,13 @@
 package ru.yandex.practicum.filmorate.dal;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.dal.mappers.FilmRelationsRowMapper;
+import ru.yandex.practicum.filmorate.dal.memory.LikeListener;
 import ru.yandex.practicum.filmorate.dto.DirectorDto;
 import ru.yandex.practicum.filmorate.dto.GenreDto;
 import ru.yandex.practicum.filmorate.dto.film.NewFilmRequest;
@@ -13,76 +17,48 @@ import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.LocalDate;
+import java.sql.Statement;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
 public class FilmRepository extends BaseRepository<Film> {
-    private static final String FIND_ALL_FILMS = "SELECT f.*, m.mpa_id AS mpa_id, m.name AS mpa_name " +
+    private static final String FILM_RELATIONS = ", " +
+            "(SELECT ARRAY_AGG(rg.genre_id ORDER BY rg.genre_id) FROM film_genres rfg " +
+            "JOIN genres rg ON rfg.genre_id = rg.genre_id WHERE rfg.film_id = f.film_id) AS genre_ids, " +
+            "(SELECT ARRAY_AGG(rg.name ORDER BY rg.genre_id) FROM film_genres rfg " +
+            "JOIN genres rg ON rfg.genre_id = rg.genre_id WHERE rfg.film_id = f.film_id) AS genre_names, " +
+            "(SELECT ARRAY_AGG(rd.director_id ORDER BY rd.director_id) FROM directed_by rdb " +
+            "JOIN directors rd ON rdb.director_id = rd.director_id WHERE rdb.film_id = f.film_id) AS director_ids, " +
+            "(SELECT ARRAY_AGG(rd.name ORDER BY rd.director_id) FROM directed_by rdb " +
+            "JOIN directors rd ON rdb.director_id = rd.director_id WHERE rdb.film_id = f.film_id) AS director_names ";
+    private static final String FIND_ALL_FILMS = "SELECT f.*, m.mpa_id AS mpa_id, m.name AS mpa_name" +
+            FILM_RELATIONS +
             "FROM films f " +
             "JOIN mpa m ON f.mpa_id = m.mpa_id";
-    private static final String FIND_FILM_BY_ID = "SELECT f.*, m.mpa_id AS mpa_id, m.name AS mpa_name " +
+    private static final String FIND_FILM_BY_ID = "SELECT f.*, m.mpa_id AS mpa_id, m.name AS mpa_name" +
+            FILM_RELATIONS +
             "FROM films f " +
             "JOIN mpa m ON f.mpa_id = m.mpa_id " +
             "WHERE f.film_id = ?";
+    private static final String FIND_FILMS_BY_IDS = FIND_ALL_FILMS + " WHERE f.film_id = ANY(?)";
+    private static final String FIND_FILMS_PAGE = FIND_ALL_FILMS + " WHERE f.film_id > ? ORDER BY f.film_id LIMIT ?";
     private static final String CREATE_FILM_GENRES = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
-    private static final String GET_POPULAR_FILMS =
-            "SELECT f.*, m.mpa_id AS mpa_id, m.name AS mpa_name, " +
-            "COUNT(l.film_id) AS cnt " +
-            "FROM films AS f " +
-            "JOIN mpa m ON f.mpa_id = m.mpa_id " +
-            "LEFT JOIN likes AS l ON f.film_id = l.film_id " +
-            "GROUP BY f.film_id " +
-            "ORDER BY COUNT(l.film_id) DESC LIMIT ?";
-    private static final String GET_POPULAR_FILMS_BY_YEAR =
-            "SELECT f.*, m.mpa_id AS mpa_id, m.name AS mpa_name, " +
-            "COUNT(l.film_id) AS cnt " +
-            "FROM films AS f " +
-            "JOIN mpa m ON f.mpa_id = m.mpa_id " +
-            "LEFT JOIN likes AS l ON f.film_id = l.film_id " +
-            "WHERE f.release_date >= ? AND f.release_date <= ? " +
-            "GROUP BY f.film_id " +
-            "ORDER BY COUNT(l.film_id) DESC LIMIT ?";
-    private static final String GET_POPULAR_FILMS_BY_GENRE =
-            "SELECT f.*, m.mpa_id AS mpa_id, m.name AS mpa_name, " +
-            "COUNT(l.film_id) AS cnt " +
-            "FROM films AS f " +
-            "JOIN mpa m ON f.mpa_id = m.mpa_id " +
-            "LEFT JOIN likes AS l ON f.film_id = l.film_id " +
-            "JOIN film_genres AS fg ON f.film_id = fg.film_id AND fg.genre_id = ? " +
-            "GROUP BY f.film_id " +
-            "ORDER BY COUNT(l.film_id) DESC LIMIT ?";
-    private static final String GET_POPULAR_FILMS_BY_GENRE_AND_YEAR =
-            "SELECT f.*, m.mpa_id AS mpa_id, m.name AS mpa_name, " +
-            "COUNT(l.film_id) AS cnt " +
-            "FROM films AS f " +
-            "JOIN mpa m ON f.mpa_id = m.mpa_id " +
-            "LEFT JOIN likes AS l ON f.film_id = l.film_id " +
-            "JOIN film_genres AS fg ON f.film_id = fg.film_id AND fg.genre_id = ? " +
-            "WHERE f.release_date >= ? AND f.release_date <= ? " +
-            "GROUP BY f.film_id " +
-            "ORDER BY COUNT(l.film_id) DESC LIMIT ?";
-    private static final String GET_COMMON_FILMS = "SELECT f.*, m.mpa_id AS mpa_id, m.name AS mpa_name" +
-            " FROM likes AS l" +
-            " JOIN films AS f ON l.film_id = f.film_id" +
-            " JOIN mpa m ON f.mpa_id = m.mpa_id" +
-            " WHERE l.user_id = ?" +
-            " AND l.film_id IN (SELECT fl.film_id FROM likes AS fl WHERE fl.user_id = ?)" +
-            " ORDER BY f.rate DESC";
     private static final String CREATE_FILM = "INSERT INTO films (" +
             "name, description, release_date, duration, mpa_id)" +
             " VALUES (?, ?, ?, ?, ?)";
     private static final String DELETE_FILM = "DELETE FROM films WHERE film_id = ?";
-    private static final String FIND_FILMS_BY_IDS = FIND_ALL_FILMS +
-            " WHERE film_id IN (?)";
+    private static final String FIND_EXISTING_FILM_IDS = "SELECT film_id FROM films WHERE film_id = ANY(?)";
     private static final String CREATE_FILM_DIRECTORS = "INSERT INTO directed_by (director_id, film_id) VALUES (?, ?)";
     private static final String FIND_DIRECTORS_FILMS_BY_LIKES
             = "SELECT f.*, " +
             " m.mpa_id AS mpa_id, m.name AS mpa_name," +
             " (SELECT COUNT(1) FROM likes" +
-            " WHERE film_id = f.film_id) AS cnt " +
+            " WHERE film_id = f.film_id) AS cnt" +
+            FILM_RELATIONS +
             " FROM directed_by AS db" +
             " INNER JOIN films AS f ON db.film_id = f.film_id" +
             " INNER JOIN mpa AS m ON f.mpa_id = m.mpa_id" +
@@ -91,29 +67,62 @@ public class FilmRepository extends BaseRepository<Film> {
     private static final String FIND_DIRECTORS_FILMS_BY_YEAR
             = "SELECT f.*," +
             " m.mpa_id AS mpa_id, m.name AS mpa_name" +
+            FILM_RELATIONS +
             " FROM directed_by AS db" +
             " INNER JOIN films AS f ON db.film_id = f.film_id" +
             " INNER JOIN mpa AS m ON f.mpa_id = m.mpa_id" +
             " WHERE db.director_id = ?" +
             " ORDER BY f.release_date";
 
-    public FilmRepository(JdbcTemplate jdbcTemplate, RowMapper<Film> filmRowMapper) {
-        super(jdbcTemplate, filmRowMapper, Film.class);
+    private final List<LikeListener> likeListeners;
+    private final int streamFetchSize;
+
+    public FilmRepository(JdbcTemplate jdbcTemplate, RowMapper<Film> filmRowMapper,
+                          List<LikeListener> likeListeners,
+                          @Value("${filmorate.films.stream-fetch-size:500}") int streamFetchSize) {
+        super(jdbcTemplate, new FilmRelationsRowMapper(filmRowMapper), Film.class);
+        this.likeListeners = likeListeners;
+        this.streamFetchSize = streamFetchSize;
     }
 
     public List<Film> findAll() {
         return findMany(FIND_ALL_FILMS);
     }
 
+    public void streamAll(Consumer<Film> consumer) {
+        jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FIND_ALL_FILMS + " ORDER BY f.film_id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            return ps;
+        }, (ResultSet rs) -> {
+            consumer.accept(mapper.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    public List<Film> findPage(long afterId, int limit) {
+        return findMany(FIND_FILMS_PAGE, afterId, limit);
+    }
+
     public Optional<Film> findById(long id) {
         return findOne(FIND_FILM_BY_ID, id);
     }
 
     public List<Film> findByIds(List<Long> ids) {
-        String idsString = ids.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
-        return findMany(FIND_FILMS_BY_IDS, idsString);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Film> filmById = findMany(FIND_FILMS_BY_IDS, (Object) ids.toArray(new Long[0]))
+                .stream()
+                .collect(Collectors.toMap(Film::getId, film -> film));
+        return ids.stream()
+                .map(filmById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        return findExistingIds(FIND_EXISTING_FILM_IDS, ids);
     }
 
     public Film create(Film film) {
@@ -142,16 +151,69 @@ public class FilmRepository extends BaseRepository<Film> {
         return film;
     }
 
+    public void createAll(List<Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(CREATE_FILM, Statement.RETURN_GENERATED_KEYS)) {
+                for (Film film : films) {
+                    ps.setString(1, film.getName());
+                    ps.setString(2, film.getDescription());
+                    ps.setObject(3, film.getReleaseDate());
+                    ps.setObject(4, film.getDuration());
+                    ps.setLong(5, film.getMpa().getId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    int idx = 0;
+                    while (keys.next() && idx < films.size()) {
+                        films.get(idx++).setId(keys.getLong(1));
+                    }
+                    if (idx != films.size()) {
+                        throw new IllegalStateException("Получено " + idx + " ключей для " + films.size()
+                                + " сохранённых фильмов");
+                    }
+                }
+            }
+            return null;
+        });
+
+        List<Object[]> filmGenres = new ArrayList<>();
+        List<Object[]> filmDirectors = new ArrayList<>();
+        for (Film film : films) {
+            film.getGenres().stream()
+                    .map(Genre::getId)
+                    .distinct()
+                    .forEach(genreId -> filmGenres.add(new Object[]{film.getId(), genreId}));
+            film.getDirectors().stream()
+                    .map(Director::getId)
+                    .distinct()
+                    .forEach(directorId -> filmDirectors.add(new Object[]{directorId, film.getId()}));
+        }
+        if (!filmGenres.isEmpty()) {
+            jdbc.batchUpdate(CREATE_FILM_GENRES, filmGenres);
+        }
+        if (!filmDirectors.isEmpty()) {
+            jdbc.batchUpdate(CREATE_FILM_DIRECTORS, filmDirectors);
+        }
+    }
+
     public int deleteFilm(long filmId) {
-        return jdbc.update(DELETE_FILM, filmId);
+        int rowsDeleted = jdbc.update(DELETE_FILM, filmId);
+        if (rowsDeleted > 0) {
+            likeListeners.forEach(listener -> listener.filmDeleted(filmId));
+        }
+        return rowsDeleted;
     }
 
     public void update(NewFilmRequest film) {
         String sqlQuery = "UPDATE films SET name = ?, description = ?, release_date = ?, " +
-                "duration = ?, RATE  = ?, mpa_id = ? WHERE film_id = ?";
+                "duration = ?, mpa_id = ? WHERE film_id = ?";
         try {
             jdbc.update(sqlQuery, film.getName(), film.getDescription(), film.getReleaseDate(),
-                    film.getDuration(), film.getRate(), film.getMpa().getId(), film.getId());
+                    film.getDuration(), film.getMpa().getId(), film.getId());
         } catch (Exception e) {
             throw e;
         }
@@ -180,29 +242,6 @@ public class FilmRepository extends BaseRepository<Film> {
         });
     }
 
-    public List<Film> getPopularFilms(Integer count) {
-        return jdbc.query(GET_POPULAR_FILMS, mapper, count);
-    }
-
-    public List<Film> getPopularFilmsByYear(Integer count, Integer year) {
-        return jdbc.query(GET_POPULAR_FILMS_BY_YEAR, mapper,
-                LocalDate.of(year, 1, 1).toString(),
-                LocalDate.of(year, 12, 31).toString(),
-                count);
-    }
-
-    public List<Film> getPopularFilmsByGenre(Integer count, Long genreId) {
-        return jdbc.query(GET_POPULAR_FILMS_BY_GENRE, mapper, genreId, count);
-    }
-
-    public List<Film> getPopularFilmsByGenreAndYear(Integer count, Long genreId, Integer year) {
-        return jdbc.query(GET_POPULAR_FILMS_BY_GENRE_AND_YEAR, mapper,
-                genreId,
-                LocalDate.of(year, 1, 1).toString(),
-                LocalDate.of(year, 12, 31).toString(),
-                count);
-    }
-
     private void saveDirectors(NewFilmRequest film) {
         final Long filmId = film.getId();
         jdbc.update("DELETE FROM directed_by WHERE film_id = ?", filmId);
@@ -237,34 +276,4 @@ public class FilmRepository extends BaseRepository<Film> {
         }
 
     }
-
-    public List<Film> getCommonFilms(Long userId, Long friendId) {
-        return jdbc.query(GET_COMMON_FILMS, mapper, userId, friendId);
-    }
-
-    public List<Film> searchFilmBy(String query, String by) {
-        String sql = "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, " +
-                "f. mpa_id, m.NAME as mpa_name, " +
-                "COUNT (L.FILM_ID) AS rate FROM FILMS f " +
-                "INNER JOIN mpa M ON F.mpa_id = m.mpa_id " +
-                "LEFT JOIN likes l ON f.film_id = l.film_id " +
-                "LEFT JOIN DIRECTED_BY AS db ON f.film_id = db.film_id " +
-                "LEFT JOIN directors AS d ON db.director_id = d.DIRECTOR_ID " +
-                interpretQuery(query, by) +
-                "GROUP BY F.film_id ORDER BY rate DESC";
-        return jdbc.query(sql, mapper);
-    }
-
-    private String interpretQuery(String query, String by) {
-        switch (by) {
-            case "title":
-                return "WHERE LOWER(f.name) LIKE " + "LOWER('%" + query + "%') ";
-            case "director":
-                return "WHERE LOWER(d.name) LIKE " + "LOWER('%" + query + "%') ";
-            default:
-                return "WHERE LOWER(d.name) LIKE " + "LOWER('%" + query + "%') OR " +
-                        "LOWER(f.name) LIKE " + "LOWER('%" + query + "%') ";
-        }
-    }
 }
-
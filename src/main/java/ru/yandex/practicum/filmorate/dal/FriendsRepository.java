@@ -1,45 +1,53 @@
 package ru.yandex.practicum.filmorate.dal;
 
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
-import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.dal.memory.FriendGraph;
 
-import java.util.List;
+import static ru.yandex.practicum.filmorate.dal.TransactionCallbacks.afterCommit;
 
 @Repository
 public class FriendsRepository {
 
     private static final String ADD_FRIEND = "INSERT INTO friendships (user_id, friend_id) VALUES (?, ?)";
     private static final String DELETE_FRIEND = "DELETE FROM friendships WHERE user_id = ? AND friend_id = ?";
-    private static final String GET_FRIENDS = "SELECT u.* FROM users u JOIN friendships f ON u.user_id = f.friend_id" +
-            " WHERE f.user_id = ?";
-    private static final String GET_COMMON_FRIENDS = "SELECT u.* FROM users u " +
-            "JOIN friendships f1 ON u.user_id = f1.friend_id " +
-            "JOIN friendships f2 ON u.user_id = f2.friend_id " +
-            "WHERE f1.user_id = ? AND f2.user_id = ?";
 
     private final JdbcTemplate jdbcTemplate;
-    private final RowMapper<User> mapper;
+    private final FriendGraph friendGraph;
 
-    public FriendsRepository(JdbcTemplate jdbcTemplate, RowMapper<User> mapper) {
+    public FriendsRepository(JdbcTemplate jdbcTemplate, FriendGraph friendGraph) {
         this.jdbcTemplate = jdbcTemplate;
-        this.mapper = mapper;
+        this.friendGraph = friendGraph;
     }
 
     public void addFriend(long userId, long friendId) {
         jdbcTemplate.update(ADD_FRIEND, userId, friendId);
+        afterCommit(() -> friendGraph.addFriend(userId, friendId));
     }
 
     public void deleteFriend(long userId, long friendId) {
-        jdbcTemplate.update(DELETE_FRIEND, userId, friendId);
+        if (jdbcTemplate.update(DELETE_FRIEND, userId, friendId) > 0) {
+            afterCommit(() -> friendGraph.removeFriend(userId, friendId));
+        }
     }
 
-    public List<User> getFriends(long userId) {
-        return jdbcTemplate.query(GET_FRIENDS, mapper, userId);
+    public long[] getFriendIds(long userId) {
+        return friendGraph.getFriends(userId);
     }
 
-    public List<User> getCommonFriends(long userId, long otherUserId) {
-        return jdbcTemplate.query(GET_COMMON_FRIENDS, mapper, userId, otherUserId);
+    public long[] getFriendIds(long userId, long afterId, int limit) {
+        return friendGraph.getFriendsAfter(userId, afterId, limit);
+    }
+
+    public long[] getSuggestedFriendIds(long userId, int count) {
+        return friendGraph.suggestFriends(userId, count);
+    }
+
+    public long[] getPathIds(long userId, long otherUserId) {
+        return friendGraph.findPath(userId, otherUserId);
+    }
+
+    public long[] getCommonFriendIds(long userId, long otherUserId) {
+        return friendGraph.getCommonFriends(userId, otherUserId);
     }
 }
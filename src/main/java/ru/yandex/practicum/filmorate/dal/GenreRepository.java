@@ -3,16 +3,10 @@ package ru.yandex.practicum.filmorate.dal;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
-import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Repository
 public class GenreRepository extends BaseRepository<Genre> {
@@ -47,27 +41,4 @@ public class GenreRepository extends BaseRepository<Genre> {
             jdbc.update(UPDATE_GENRE, filmId, genreId);
         }
     }
-
-    public void load(List<Film> films) {
-        String inSql = String.join(",", Collections.nCopies(films.size(), "?"));
-        Map<Long, Film> filmById = films.stream().collect(Collectors.toMap(Film::getId, film -> film));
-
-        String sqlQuery = "SELECT g.genre_id, g.name, fg.film_id FROM genres g " +
-                "JOIN film_genres fg ON g.genre_id = fg.genre_id " +
-                "WHERE fg.film_id IN (" + inSql + ")";
-
-        jdbc.query(sqlQuery, (ResultSet rs) -> {
-            Film film = filmById.get(rs.getLong("film_id"));
-            if (film != null) {
-                film.getGenres().add(makeGenre(rs));
-            }
-        }, films.stream().map(Film::getId).toArray());
-    }
-
-    private Genre makeGenre(ResultSet rs) throws SQLException {
-        Genre genre = new Genre();
-        genre.setId(rs.getLong("genre_id"));
-        genre.setName(rs.getString("name"));
-        return genre;
-    }
 }
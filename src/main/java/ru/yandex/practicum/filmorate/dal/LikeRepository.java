@@ -3,17 +3,26 @@ package ru.yandex.practicum.filmorate.dal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dal.memory.LikeListener;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
+import ru.yandex.practicum.filmorate.model.enums.OperationType;
 
-import java.util.List;
+import java.sql.PreparedStatement;
+import java.util.*;
+
+import static ru.yandex.practicum.filmorate.dal.TransactionCallbacks.afterCommit;
 
 @Repository
 @RequiredArgsConstructor
 public class LikeRepository {
 
-    private static final String ADD_LIKE = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
+    private static final String ADD_LIKE = "MERGE INTO likes l " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS s(film_id, user_id) " +
+            "ON l.film_id = s.film_id AND l.user_id = s.user_id " +
+            "WHEN NOT MATCHED THEN INSERT (film_id, user_id) VALUES (s.film_id, s.user_id)";
     private static final String REMOVE_LIKE = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
-    private static final String UPDATE_RATE = "UPDATE films f SET rate = (SELECT COUNT(l.user_id) FROM likes l " +
-            "WHERE l.film_id = f.film_id) WHERE film_id = ?";
+    private static final String CHANGE_RATE = "UPDATE films SET rate = COALESCE(rate, 0) + ? WHERE film_id = ?";
     private static final String GET_RECOMMENDED_FILMS_IDS = "SELECT DISTINCT l.film_id FROM likes l " +
             "WHERE l.user_id IN " +
             "(SELECT user_id FROM " +
@@ -22,32 +31,93 @@ public class LikeRepository {
             "GROUP BY l4.user_id) subquery " +
             "WHERE common_count = max_common) AND l.film_id NOT IN " +
             "(SELECT l2.film_id FROM likes l2 WHERE l2.user_id = ?)";
-    private static final String IS_LIKE_EXISTS = "SELECT count(*) FROM likes WHERE film_id = ? AND user_id = ?";
+    private static final String FIND_COMMON_FILMS_IDS = "SELECT film_id FROM likes " +
+            "WHERE user_id = ANY(?) " +
+            "GROUP BY film_id " +
+            "HAVING COUNT(user_id) >= ?";
 
     private final JdbcTemplate jdbcTemplate;
+    private final List<LikeListener> likeListeners;
 
-    public boolean isLikeExist(long filmId, long userId) {
-        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_LIKE_EXISTS, Boolean.class, filmId, userId));
+    @Transactional
+    public boolean addLike(long filmId, long userId) {
+        if (jdbcTemplate.update(ADD_LIKE, filmId, userId) == 0) {
+            return false;
+        }
+        jdbcTemplate.update(CHANGE_RATE, 1, filmId);
+        afterCommit(() -> likeListeners.forEach(listener -> listener.likeAdded(filmId, userId)));
+        return true;
     }
 
-    public void addLike(long filmId, long userId) {
-        if (isLikeExist(filmId, userId)) {
-            return;
+    @Transactional
+    public boolean removeLike(long filmId, long userId) {
+        if (jdbcTemplate.update(REMOVE_LIKE, filmId, userId) == 0) {
+            return false;
         }
-        jdbcTemplate.update(ADD_LIKE, filmId, userId);
-        updateRate(filmId);
+        jdbcTemplate.update(CHANGE_RATE, -1, filmId);
+        afterCommit(() -> likeListeners.forEach(listener -> listener.likeRemoved(filmId, userId)));
+        return true;
     }
 
-    public void removeLike(long filmId, long userId) {
-        jdbcTemplate.update(REMOVE_LIKE, filmId, userId);
-        updateRate(filmId);
-    }
+    @Transactional
+    public boolean[] applyLikes(List<LikeOperation> operations) {
+        boolean[] changed = new boolean[operations.size()];
+        applyBatch(ADD_LIKE, operations, OperationType.ADD, changed);
+        applyBatch(REMOVE_LIKE, operations, OperationType.REMOVE, changed);
 
-    private void updateRate(long filmId) {
-        jdbcTemplate.update(UPDATE_RATE, filmId);
+        List<LikeOperation> applied = new ArrayList<>();
+        Map<Long, Integer> rateDeltas = new HashMap<>();
+        for (int i = 0; i < changed.length; i++) {
+            if (changed[i]) {
+                LikeOperation operation = operations.get(i);
+                applied.add(operation);
+                rateDeltas.merge(operation.getFilmId(), operation.getOperation() == OperationType.ADD ? 1 : -1,
+                        Integer::sum);
+            }
+        }
+        rateDeltas.values().removeIf(delta -> delta == 0);
+        if (!rateDeltas.isEmpty()) {
+            jdbcTemplate.batchUpdate(CHANGE_RATE, rateDeltas.entrySet(), rateDeltas.size(),
+                    (PreparedStatement ps, Map.Entry<Long, Integer> delta) -> {
+                        ps.setInt(1, delta.getValue());
+                        ps.setLong(2, delta.getKey());
+                    });
+        }
+        afterCommit(() -> applied.forEach(operation -> likeListeners.forEach(listener -> {
+            if (operation.getOperation() == OperationType.ADD) {
+                listener.likeAdded(operation.getFilmId(), operation.getUserId());
+            } else {
+                listener.likeRemoved(operation.getFilmId(), operation.getUserId());
+            }
+        })));
+        return changed;
     }
 
     public List<Long> getRecommendedFilmsIds(Long userId) {
         return jdbcTemplate.queryForList(GET_RECOMMENDED_FILMS_IDS, Long.class, userId, userId, userId);
     }
+
+    public List<Long> getCommonFilmsIds(Collection<Long> userIds, int minUsers) {
+        return jdbcTemplate.queryForList(FIND_COMMON_FILMS_IDS, Long.class,
+                userIds.stream().distinct().toArray(Long[]::new), minUsers);
+    }
+
+    private void applyBatch(String sql, List<LikeOperation> operations, OperationType type, boolean[] changed) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            if (operations.get(i).getOperation() == type) {
+                indexes.add(i);
+            }
+        }
+        if (indexes.isEmpty()) {
+            return;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(sql, indexes, indexes.size(), (PreparedStatement ps, Integer i) -> {
+            ps.setLong(1, operations.get(i).getFilmId());
+            ps.setLong(2, operations.get(i).getUserId());
+        });
+        for (int i = 0; i < counts[0].length; i++) {
+            changed[indexes.get(i)] = counts[0][i] > 0;
+        }
+    }
 }
@@ -11,30 +11,35 @@ import java.util.Optional;
 @Repository
 public class ReviewRepository extends BaseRepository<Review> {
     private static final String BASE_QUERY = """
-            SELECT r.review_id, r.isPositive, r.content, r.film_id, r.user_id,
-             COALESCE(SUM(u.useful_count), 0) AS usefulness
-             FROM reviews r
-             LEFT JOIN useful u ON u.review_id = r.review_id
+            SELECT review_id, isPositive, content, film_id, user_id, usefulness
+             FROM reviews
             """;
     private static final String FIND_ALL_QUERY = BASE_QUERY + """
-             WHERE r.film_id = ?
-             GROUP BY r.review_id
-             ORDER BY usefulness DESC
+             WHERE film_id = ?
+             ORDER BY usefulness DESC, review_id
              LIMIT ?;
             """;
     private static final String FIND_ALL_WITH_LIMIT_QUERY = BASE_QUERY + """
-             GROUP BY r.review_id
-             ORDER BY usefulness DESC
+             ORDER BY usefulness DESC, review_id
              LIMIT ?;
             """;
     private static final String FIND_ALL_BY_FILM_ID_QUERY = BASE_QUERY + """
-             WHERE r.film_id = ?
-             GROUP BY r.review_id
-             ORDER BY usefulness DESC;
+             WHERE film_id = ?
+             ORDER BY usefulness DESC, review_id;
             """;
+    private static final String AFTER_CURSOR = """
+             usefulness <= ? AND (usefulness < ? OR review_id > ?)
+             ORDER BY usefulness DESC, review_id
+             LIMIT ?;
+            """;
+    private static final String FIND_PAGE_QUERY = BASE_QUERY + """
+             WHERE film_id = ? AND
+            """ + AFTER_CURSOR;
+    private static final String FIND_PAGE_WITHOUT_FILM_QUERY = BASE_QUERY + """
+             WHERE
+            """ + AFTER_CURSOR;
     private static final String FIND_BY_ID_QUERY = BASE_QUERY + """
-             WHERE r.review_id = ?
-             GROUP BY r.review_id;
+             WHERE review_id = ?;
             """;
     private static final String INSERT_QUERY = """
             INSERT INTO reviews (isPositive, content, film_id, user_id) VALUES(?, ?, ?, ?);""";
@@ -58,6 +63,14 @@ public class ReviewRepository extends BaseRepository<Review> {
         return findMany(FIND_ALL_QUERY, filmId, count);
     }
 
+    public List<Review> getReviewsAfter(long usefulness, long reviewId, int count) {
+        return findMany(FIND_PAGE_WITHOUT_FILM_QUERY, usefulness, usefulness, reviewId, count);
+    }
+
+    public List<Review> getReviewsAfter(Long filmId, long usefulness, long reviewId, int count) {
+        return findMany(FIND_PAGE_QUERY, filmId, usefulness, usefulness, reviewId, count);
+    }
+
     public Optional<Review> getReviewById(long reviewId) {
         return findOne(FIND_BY_ID_QUERY, reviewId);
     }
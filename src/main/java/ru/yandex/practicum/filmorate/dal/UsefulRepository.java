@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.dal;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Useful;
 
 @Repository
@@ -12,20 +13,32 @@ public class UsefulRepository extends BaseRepository<Useful> {
             INSERT INTO useful (review_id, user_id, useful_count) VALUES(?, ?, 1);""";
     private static final String INSERT_DISLIKE_QUERY = """
             INSERT INTO useful (review_id, user_id, useful_count) VALUES(?, ?, -1);""";
+    private static final String CHANGE_USEFULNESS_QUERY = """
+            UPDATE reviews SET usefulness = usefulness + ? WHERE review_id = ?;""";
+    private static final String REVERT_USEFULNESS_QUERY = """
+            UPDATE reviews SET usefulness = usefulness - COALESCE(
+             (SELECT useful_count FROM useful WHERE review_id = ? AND user_id = ?), 0)
+             WHERE review_id = ?;""";
 
     public UsefulRepository(JdbcTemplate jdbc, RowMapper<Useful> mapper) {
         super(jdbc, mapper, Useful.class);
     }
 
+    @Transactional
     public boolean deleteUseful(Long id, Long userId) {
+        jdbc.update(REVERT_USEFULNESS_QUERY, id, userId, id);
         return delete(DELETE_USEFUL_BY_ID_QUERY, id, userId);
     }
 
+    @Transactional
     public void addLikeToReview(Long id, Long userId) {
         insert(INSERT_LIKE_QUERY, id, userId);
+        jdbc.update(CHANGE_USEFULNESS_QUERY, 1, id);
     }
 
+    @Transactional
     public void addDislikeToReview(Long id, Long userId) {
         insert(INSERT_DISLIKE_QUERY, id, userId);
+        jdbc.update(CHANGE_USEFULNESS_QUERY, -1, id);
     }
 }
@@ -3,23 +3,42 @@ package ru.yandex.practicum.filmorate.dal;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dal.memory.FriendGraph;
+import ru.yandex.practicum.filmorate.dal.memory.LikeListener;
 import ru.yandex.practicum.filmorate.model.User;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ru.yandex.practicum.filmorate.dal.TransactionCallbacks.afterCommit;
 
 @Repository
 public class UserRepository extends BaseRepository<User> {
     private static final String FIND_ALL_USERS = "SELECT * FROM users";
     private static final String FIND_USER_BY_ID = "SELECT * FROM users WHERE user_id = ?";
     private static final String CREATE_USER = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+    private static final String FIND_USERS_BY_IDS = "SELECT * FROM users WHERE user_id = ANY(?)";
+    private static final String FIND_ALL_USER_IDS = "SELECT user_id FROM users ORDER BY user_id";
+    private static final String FIND_EXISTING_USER_IDS = "SELECT user_id FROM users WHERE user_id = ANY(?)";
     private static final String DELETE_USER = "DELETE FROM users WHERE user_id = ?";
+    private static final String DECREASE_LIKED_FILMS_RATE = "UPDATE films SET rate = COALESCE(rate, 0) - 1 " +
+            "WHERE film_id IN (SELECT film_id FROM likes WHERE user_id = ?)";
+    private static final String REVERT_REVIEWS_USEFULNESS = "UPDATE reviews r SET usefulness = usefulness - " +
+            "(SELECT SUM(u.useful_count) FROM useful u WHERE u.review_id = r.review_id AND u.user_id = ?) " +
+            "WHERE review_id IN (SELECT review_id FROM useful WHERE user_id = ?)";
     private static final String UPDATE_USER = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ?" +
             " WHERE user_id = ?";
 
+    private final List<LikeListener> likeListeners;
+    private final FriendGraph friendGraph;
 
-    public UserRepository(JdbcTemplate jdbcTemplate, RowMapper<User> mapper) {
+    public UserRepository(JdbcTemplate jdbcTemplate, RowMapper<User> mapper, List<LikeListener> likeListeners,
+                          FriendGraph friendGraph) {
         super(jdbcTemplate, mapper, User.class);
+        this.likeListeners = likeListeners;
+        this.friendGraph = friendGraph;
     }
 
     public List<User> findAll() {
@@ -30,14 +49,46 @@ public class UserRepository extends BaseRepository<User> {
         return findOne(FIND_USER_BY_ID, id);
     }
 
+    public List<User> findByIds(long[] ids) {
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+        Long[] boxedIds = Arrays.stream(ids).boxed().toArray(Long[]::new);
+        Map<Long, User> userById = findMany(FIND_USERS_BY_IDS, (Object) boxedIds)
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return Arrays.stream(ids)
+                .mapToObj(userById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    public List<Long> findAllIds() {
+        return jdbc.queryForList(FIND_ALL_USER_IDS, Long.class);
+    }
+
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        return findExistingIds(FIND_EXISTING_USER_IDS, ids);
+    }
+
     public User create(User user) {
         long id = insert(CREATE_USER, user.getEmail(), user.getLogin(), user.getName(), user.getBirthday());
         user.setId(id);
         return user;
     }
 
+    @Transactional
     public int delete(long id) {
-       return jdbc.update(DELETE_USER, id);
+        jdbc.update(DECREASE_LIKED_FILMS_RATE, id);
+        jdbc.update(REVERT_REVIEWS_USEFULNESS, id, id);
+        int rowsDeleted = jdbc.update(DELETE_USER, id);
+        if (rowsDeleted > 0) {
+            afterCommit(() -> {
+                likeListeners.forEach(listener -> listener.userDeleted(id));
+                friendGraph.userDeleted(id);
+            });
+        }
+        return rowsDeleted;
     }
 
     public void update(User user) {
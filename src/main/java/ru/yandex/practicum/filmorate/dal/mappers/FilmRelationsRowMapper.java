@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.dal.mappers;
+
+import org.springframework.jdbc.core.RowMapper;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FilmRelationsRowMapper implements RowMapper<Film> {
+
+    private final RowMapper<Film> filmRowMapper;
+
+    public FilmRelationsRowMapper(RowMapper<Film> filmRowMapper) {
+        this.filmRowMapper = filmRowMapper;
+    }
+
+    @Override
+    public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Film film = filmRowMapper.mapRow(rs, rowNum);
+
+        Object[] genreIds = readArray(rs, "genre_ids");
+        Object[] genreNames = readArray(rs, "genre_names");
+        List<Genre> genres = new ArrayList<>(genreIds.length);
+        for (int i = 0; i < genreIds.length; i++) {
+            Genre genre = new Genre();
+            genre.setId(((Number) genreIds[i]).longValue());
+            genre.setName((String) genreNames[i]);
+            genres.add(genre);
+        }
+        film.setGenres(genres);
+
+        Object[] directorIds = readArray(rs, "director_ids");
+        Object[] directorNames = readArray(rs, "director_names");
+        List<Director> directors = new ArrayList<>(directorIds.length);
+        for (int i = 0; i < directorIds.length; i++) {
+            directors.add(Director.builder()
+                    .id(((Number) directorIds[i]).longValue())
+                    .name((String) directorNames[i])
+                    .build());
+        }
+        film.setDirectors(directors);
+
+        return film;
+    }
+
+    private static Object[] readArray(ResultSet rs, String column) throws SQLException {
+        Array array = rs.getArray(column);
+        return array != null ? (Object[]) array.getArray() : new Object[0];
+    }
+}
@@ -0,0 +1,164 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+@Slf4j
+@Component
+public class FilmCache implements LikeListener, MeterBinder {
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public FilmCache(@Value("${filmorate.films.cache.max-entries:10000}") int maxEntries) {
+        int segmentCapacity = Math.max(1, maxEntries / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    public Optional<Film> get(long filmId, LongFunction<Optional<Film>> loader) {
+        Segment segment = segmentFor(filmId);
+        Film cached;
+        synchronized (segment) {
+            cached = segment.get(filmId);
+        }
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(copy(cached));
+        }
+        misses.increment();
+        long stamp = invalidations.get();
+        Optional<Film> loaded = loader.apply(filmId);
+        loaded.ifPresent(film -> {
+            synchronized (segment) {
+                if (invalidations.get() == stamp) {
+                    segment.put(filmId, copy(film));
+                }
+            }
+        });
+        return loaded;
+    }
+
+    public void evict(long filmId) {
+        Segment segment = segmentFor(filmId);
+        synchronized (segment) {
+            invalidations.incrementAndGet();
+            segment.remove(filmId);
+        }
+    }
+
+    public void evictByDirector(long directorId) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                invalidations.incrementAndGet();
+                segment.values().removeIf(film -> film.getDirectors().stream()
+                        .anyMatch(director -> director.getId() == directorId));
+            }
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                invalidations.incrementAndGet();
+                segment.clear();
+            }
+        }
+    }
+
+    public Stats getStats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", "films", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", "films", "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", "films")
+                .register(registry);
+        Gauge.builder("cache.size", this, cache -> cache.getStats().size())
+                .tag("cache", "films")
+                .register(registry);
+    }
+
+    @Override
+    public void likeAdded(long filmId, long userId) {
+        evict(filmId);
+    }
+
+    @Override
+    public void likeRemoved(long filmId, long userId) {
+        evict(filmId);
+    }
+
+    @Override
+    public void filmDeleted(long filmId) {
+        evict(filmId);
+    }
+
+    @Override
+    public void userDeleted(long userId) {
+        clear();
+    }
+
+    private Segment segmentFor(long filmId) {
+        return segments[(int) (Long.hashCode(filmId) & (SEGMENTS - 1))];
+    }
+
+    private static Film copy(Film film) {
+        return new Film(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                film.getDuration(), film.getRate(), film.getMpa(),
+                new ArrayList<>(film.getGenres()), new ArrayList<>(film.getDirectors()));
+    }
+
+    public record Stats(long hits, long misses, long evictions, long size) {
+    }
+
+    private final class Segment extends LinkedHashMap<Long, Film> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Film> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
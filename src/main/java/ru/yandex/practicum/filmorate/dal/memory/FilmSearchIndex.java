@@ -0,0 +1,321 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class FilmSearchIndex {
+    private static final int GRAM = 3;
+    private static final String LOAD_FILMS = "SELECT film_id, name FROM films";
+    private static final String LOAD_DIRECTORS = "SELECT director_id, name FROM directors";
+    private static final String LOAD_DIRECTED_BY = "SELECT director_id, film_id FROM directed_by";
+
+    private final JdbcTemplate jdbc;
+    private final PopularityLeaderboard popularityLeaderboard;
+    private final double minSimilarity;
+    private final double likesWeight;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> titles = new HashMap<>();
+    private final Map<Long, String> directorNames = new HashMap<>();
+    private final Map<Long, Set<Long>> titleGrams = new HashMap<>();
+    private final Map<Long, Set<Long>> directorGrams = new HashMap<>();
+    private final Map<Long, Set<Long>> filmsByDirector = new HashMap<>();
+    private final Map<Long, Set<Long>> directorsByFilm = new HashMap<>();
+    private volatile boolean loaded;
+
+    public FilmSearchIndex(JdbcTemplate jdbc, PopularityLeaderboard popularityLeaderboard,
+                           @Value("${filmorate.search.fuzzy.min-similarity:0.4}") double minSimilarity,
+                           @Value("${filmorate.search.fuzzy.likes-weight:0.1}") double likesWeight) {
+        this.jdbc = jdbc;
+        this.popularityLeaderboard = popularityLeaderboard;
+        this.minSimilarity = minSimilarity;
+        this.likesWeight = likesWeight;
+    }
+
+    public List<Long> search(String query, boolean byTitle, boolean byDirector) {
+        String needle = normalize(query);
+        ensureLoaded();
+        Set<Long> filmIds = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            if (byTitle) {
+                filmIds.addAll(match(needle, titleGrams, titles));
+            }
+            if (byDirector) {
+                for (Long directorId : match(needle, directorGrams, directorNames)) {
+                    filmIds.addAll(filmsByDirector.getOrDefault(directorId, Collections.emptySet()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return rank(filmIds);
+    }
+
+    public List<Long> searchFuzzy(String query, boolean byTitle, boolean byDirector) {
+        String needle = normalize(query);
+        if (needle.length() < GRAM) {
+            return search(query, byTitle, byDirector);
+        }
+        ensureLoaded();
+        Map<Long, Double> similarity = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (byTitle) {
+                similar(needle, titleGrams).forEach((filmId, score) -> similarity.merge(filmId, score, Math::max));
+            }
+            if (byDirector) {
+                similar(needle, directorGrams).forEach((directorId, score) -> {
+                    for (Long filmId : filmsByDirector.getOrDefault(directorId, Collections.emptySet())) {
+                        similarity.merge(filmId, score, Math::max);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        similarity.forEach((filmId, score) -> scores.put(filmId,
+                score * (1 + likesWeight * Math.log1p(popularityLeaderboard.getLikes(filmId)))));
+        return scores.keySet().stream()
+                .sorted(Comparator.<Long, Double>comparing(scores::get, Comparator.reverseOrder())
+                        .thenComparing(Comparator.naturalOrder()))
+                .toList();
+    }
+
+    public void putFilm(long filmId, String name, Collection<Long> directorIds) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            unindexFilm(filmId);
+            indexFilm(filmId, name);
+            for (Long directorId : directorIds) {
+                link(directorId, filmId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putDirector(long directorId, String name) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            unindex(directorId, directorNames.remove(directorId), directorGrams);
+            indexDirector(directorId, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeDirector(long directorId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            unindex(directorId, directorNames.remove(directorId), directorGrams);
+            Set<Long> films = filmsByDirector.remove(directorId);
+            if (films != null) {
+                for (Long filmId : films) {
+                    Set<Long> directors = directorsByFilm.get(filmId);
+                    if (directors != null) {
+                        directors.remove(directorId);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFilm(long filmId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            unindexFilm(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Long> rank(Set<Long> filmIds) {
+        Map<Long, Long> likes = new HashMap<>();
+        for (Long filmId : filmIds) {
+            likes.put(filmId, popularityLeaderboard.getLikes(filmId));
+        }
+        return filmIds.stream()
+                .sorted(Comparator.<Long, Long>comparing(likes::get, Comparator.reverseOrder())
+                        .thenComparing(Comparator.naturalOrder()))
+                .toList();
+    }
+
+    private static List<Long> match(String needle, Map<Long, Set<Long>> postings, Map<Long, String> documents) {
+        if (needle.length() < GRAM) {
+            return documents.entrySet().stream()
+                    .filter(document -> document.getValue().contains(needle))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+        List<Set<Long>> lists = new ArrayList<>();
+        for (long gram : grams(needle)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting == null) {
+                return Collections.emptyList();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        List<Long> result = new ArrayList<>();
+        candidates:
+        for (Long id : lists.get(0)) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue candidates;
+                }
+            }
+            if (documents.get(id).contains(needle)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private Map<Long, Double> similar(String needle, Map<Long, Set<Long>> postings) {
+        List<Set<Long>> lists = grams(needle).stream()
+                .map(gram -> postings.getOrDefault(gram, Collections.emptySet()))
+                .sorted(Comparator.comparingInt(Set::size))
+                .toList();
+        int total = lists.size();
+        int minShared = Math.max(1, (int) Math.ceil(minSimilarity * total));
+        int prefix = total - minShared + 1;
+        Map<Long, Integer> shared = new HashMap<>();
+        for (int i = 0; i < prefix; i++) {
+            for (Long id : lists.get(i)) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+        Map<Long, Double> result = new HashMap<>();
+        for (Map.Entry<Long, Integer> candidate : shared.entrySet()) {
+            int count = candidate.getValue();
+            for (int i = prefix; i < total; i++) {
+                if (lists.get(i).contains(candidate.getKey())) {
+                    count++;
+                }
+            }
+            if (count >= minShared) {
+                result.put(candidate.getKey(), (double) count / total);
+            }
+        }
+        return result;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        titles.clear();
+        directorNames.clear();
+        titleGrams.clear();
+        directorGrams.clear();
+        filmsByDirector.clear();
+        directorsByFilm.clear();
+        jdbc.query(LOAD_FILMS, (ResultSet rs) -> {
+            indexFilm(rs.getLong("film_id"), rs.getString("name"));
+        });
+        jdbc.query(LOAD_DIRECTORS, (ResultSet rs) -> {
+            indexDirector(rs.getLong("director_id"), rs.getString("name"));
+        });
+        jdbc.query(LOAD_DIRECTED_BY, (ResultSet rs) -> {
+            link(rs.getLong("director_id"), rs.getLong("film_id"));
+        });
+        loaded = true;
+        log.info("Поисковый индекс построен. Фильмов: {}, режиссёров: {}, триграмм: {}",
+                titles.size(), directorNames.size(), titleGrams.size() + directorGrams.size());
+    }
+
+    private void indexFilm(long filmId, String name) {
+        String title = normalize(name);
+        titles.put(filmId, title);
+        index(filmId, title, titleGrams);
+    }
+
+    private void indexDirector(long directorId, String name) {
+        String directorName = normalize(name);
+        directorNames.put(directorId, directorName);
+        index(directorId, directorName, directorGrams);
+    }
+
+    private void unindexFilm(long filmId) {
+        unindex(filmId, titles.remove(filmId), titleGrams);
+        Set<Long> directors = directorsByFilm.remove(filmId);
+        if (directors != null) {
+            for (Long directorId : directors) {
+                Set<Long> films = filmsByDirector.get(directorId);
+                if (films != null) {
+                    films.remove(filmId);
+                }
+            }
+        }
+    }
+
+    private void link(long directorId, long filmId) {
+        filmsByDirector.computeIfAbsent(directorId, id -> new HashSet<>()).add(filmId);
+        directorsByFilm.computeIfAbsent(filmId, id -> new HashSet<>()).add(directorId);
+    }
+
+    private static void index(long id, String text, Map<Long, Set<Long>> postings) {
+        for (long gram : grams(text)) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    private static void unindex(long id, String text, Map<Long, Set<Long>> postings) {
+        if (text == null) {
+            return;
+        }
+        for (long gram : grams(text)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting != null && posting.remove(id) && posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,493 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class FilmSuggestIndex implements LikeListener {
+    private static final String LOAD_FILMS = "SELECT film_id, name FROM films";
+    private static final String LOAD_DIRECTORS = "SELECT director_id, name FROM directors";
+    private static final String LOAD_DIRECTED_BY = "SELECT director_id, film_id FROM directed_by";
+    private static final String LOAD_LIKES = "SELECT film_id, COALESCE(rate, 0) AS likes FROM films";
+    private static final String LOAD_FILM_LIKES = "SELECT COALESCE(rate, 0) FROM films WHERE film_id = ?";
+    private static final int BLOCK_SIZE = 64;
+    private static final int MIN_PENDING = 1024;
+    private static final long REMOVED = -1;
+
+    private final JdbcTemplate jdbc;
+    private final int topSize;
+    private final Map<Long, Long> likes = new HashMap<>();
+    private final Comparator<Long> byLikes = Comparator.<Long, Long>comparing(
+                    filmId -> likes.getOrDefault(filmId, 0L), Comparator.reverseOrder())
+            .thenComparing(Comparator.naturalOrder());
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> titles = new HashMap<>();
+    private final Map<Long, String> directorNames = new HashMap<>();
+    private final Map<Long, Set<Long>> filmsByDirector = new HashMap<>();
+    private final Map<Long, Set<Long>> directorsByFilm = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> pending = new TreeMap<>();
+    private int pendingSize;
+    private int removedSize;
+    private String[] texts = new String[0];
+    private int[] offsets = new int[0];
+    private long[] filmIds = new long[0];
+    private long[][] tops = new long[0][];
+    private int blocks;
+    private volatile boolean loaded;
+
+    public FilmSuggestIndex(JdbcTemplate jdbc, @Value("${filmorate.search.suggest.top-size:20}") int topSize) {
+        this.jdbc = jdbc;
+        this.topSize = topSize;
+    }
+
+    public Map<Long, String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        Map<Long, String> suggestions = new LinkedHashMap<>();
+        if (key.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            List<Long> candidates = new ArrayList<>();
+            collect(lowerBound(key, false), lowerBound(key, true), candidates);
+            for (Set<Long> films : pending.subMap(key, true, key + Character.MAX_VALUE, true).values()) {
+                candidates.addAll(films);
+            }
+            for (long filmId : rank(candidates)) {
+                if (suggestions.size() == limit) {
+                    break;
+                }
+                suggestions.put(filmId, titles.get(filmId));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void putFilm(long filmId, String name, Collection<Long> directorIds) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            unindex(filmId);
+            unlinkFilm(filmId);
+            titles.put(filmId, name);
+            for (Long directorId : directorIds) {
+                link(directorId, filmId);
+            }
+            index(filmId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putDirector(long directorId, String name) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            Set<Long> films = filmsByDirector.getOrDefault(directorId, Collections.emptySet());
+            films.forEach(this::unindex);
+            directorNames.put(directorId, name);
+            films.forEach(this::index);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeDirector(long directorId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            Set<Long> films = filmsByDirector.getOrDefault(directorId, Collections.emptySet());
+            films.forEach(this::unindex);
+            filmsByDirector.remove(directorId);
+            directorNames.remove(directorId);
+            for (Long filmId : films) {
+                directorsByFilm.getOrDefault(filmId, Collections.emptySet()).remove(directorId);
+                index(filmId);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFilm(long filmId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded || !titles.containsKey(filmId)) {
+                return;
+            }
+            unindex(filmId);
+            unlinkFilm(filmId);
+            titles.remove(filmId);
+            likes.remove(filmId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void likeAdded(long filmId, long userId) {
+        refreshLikes(filmId);
+    }
+
+    @Override
+    public void likeRemoved(long filmId, long userId) {
+        refreshLikes(filmId);
+    }
+
+    @Override
+    public void userDeleted(long userId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            jdbc.query(LOAD_LIKES, (ResultSet rs) -> {
+                long filmId = rs.getLong("film_id");
+                long count = rs.getLong("likes");
+                if (titles.containsKey(filmId) && likes.getOrDefault(filmId, 0L) != count) {
+                    likes.put(filmId, count);
+                    rerank(filmId);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void refreshLikes(long filmId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded || !titles.containsKey(filmId)) {
+                return;
+            }
+            List<Long> count = jdbc.queryForList(LOAD_FILM_LIKES, Long.class, filmId);
+            if (!count.isEmpty() && likes.getOrDefault(filmId, 0L) != count.get(0).longValue()) {
+                likes.put(filmId, count.get(0));
+                rerank(filmId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void collect(int from, int to, List<Long> candidates) {
+        int firstBlock = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int lastBlock = to / BLOCK_SIZE;
+        if (firstBlock >= lastBlock) {
+            scan(from, to, candidates);
+            return;
+        }
+        scan(from, firstBlock * BLOCK_SIZE, candidates);
+        scan(lastBlock * BLOCK_SIZE, to, candidates);
+        for (int l = firstBlock + blocks, r = lastBlock + blocks; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                addAll(tops[l++], candidates);
+            }
+            if ((r & 1) == 1) {
+                addAll(tops[--r], candidates);
+            }
+        }
+    }
+
+    private void scan(int from, int to, List<Long> candidates) {
+        for (int i = from; i < to; i++) {
+            if (filmIds[i] != REMOVED) {
+                candidates.add(filmIds[i]);
+            }
+        }
+    }
+
+    private static void addAll(long[] films, List<Long> candidates) {
+        for (long filmId : films) {
+            candidates.add(filmId);
+        }
+    }
+
+    private long[] rank(List<Long> candidates) {
+        return candidates.stream()
+                .distinct()
+                .sorted(byLikes)
+                .limit(topSize)
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    private long[] rankBlock(int block) {
+        List<Long> candidates = new ArrayList<>(BLOCK_SIZE);
+        scan(block * BLOCK_SIZE, Math.min(filmIds.length, (block + 1) * BLOCK_SIZE), candidates);
+        return rank(candidates);
+    }
+
+    private long[] merge(long[] left, long[] right) {
+        List<Long> candidates = new ArrayList<>(left.length + right.length);
+        addAll(left, candidates);
+        addAll(right, candidates);
+        return rank(candidates);
+    }
+
+    private void rerankBlock(int block) {
+        int node = block + blocks;
+        tops[node] = rankBlock(block);
+        for (node >>= 1; node >= 1; node >>= 1) {
+            tops[node] = merge(tops[2 * node], tops[2 * node + 1]);
+        }
+    }
+
+    private void rerank(long filmId) {
+        Set<Integer> changed = new HashSet<>();
+        for (int position : positions(filmId)) {
+            changed.add(position / BLOCK_SIZE);
+        }
+        changed.forEach(this::rerankBlock);
+    }
+
+    private void index(long filmId) {
+        for (Suffix suffix : suffixes(filmId)) {
+            pending.computeIfAbsent(suffix.key(), key -> new HashSet<>()).add(filmId);
+            pendingSize++;
+        }
+    }
+
+    private void unindex(long filmId) {
+        Set<Integer> changed = new HashSet<>();
+        for (Suffix suffix : suffixes(filmId)) {
+            Set<Long> films = pending.get(suffix.key());
+            if (films != null && films.remove(filmId)) {
+                pendingSize--;
+                if (films.isEmpty()) {
+                    pending.remove(suffix.key());
+                }
+                continue;
+            }
+            int position = find(suffix, filmId);
+            if (position >= 0) {
+                filmIds[position] = REMOVED;
+                removedSize++;
+                changed.add(position / BLOCK_SIZE);
+            }
+        }
+        changed.forEach(this::rerankBlock);
+    }
+
+    private List<Integer> positions(long filmId) {
+        List<Integer> positions = new ArrayList<>();
+        for (Suffix suffix : suffixes(filmId)) {
+            int position = find(suffix, filmId);
+            if (position >= 0) {
+                positions.add(position);
+            }
+        }
+        return positions;
+    }
+
+    private int find(Suffix suffix, long filmId) {
+        int low = 0;
+        int high = filmIds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(texts[mid], offsets[mid], suffix.text(), suffix.offset());
+            if (cmp == 0) {
+                cmp = Long.compare(filmIds[mid] == REMOVED ? filmId : filmIds[mid], filmId);
+                if (cmp == 0) {
+                    return filmIds[mid] == filmId ? mid : scanRun(mid, suffix, filmId);
+                }
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    private int scanRun(int position, Suffix suffix, long filmId) {
+        for (int i = position; i >= 0 && compare(texts[i], offsets[i], suffix.text(), suffix.offset()) == 0; i--) {
+            if (filmIds[i] == filmId) {
+                return i;
+            }
+        }
+        for (int i = position + 1; i < filmIds.length
+                && compare(texts[i], offsets[i], suffix.text(), suffix.offset()) == 0; i++) {
+            if (filmIds[i] == filmId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int lowerBound(String key, boolean past) {
+        int low = 0;
+        int high = filmIds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = comparePrefix(texts[mid], offsets[mid], key);
+            if (cmp < 0 || past && cmp == 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int comparePrefix(String text, int offset, String key) {
+        int length = Math.min(text.length() - offset, key.length());
+        for (int i = 0; i < length; i++) {
+            int cmp = Character.compare(text.charAt(offset + i), key.charAt(i));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return text.length() - offset >= key.length() ? 0 : -1;
+    }
+
+    private static int compare(String left, int leftOffset, String right, int rightOffset) {
+        int leftLength = left.length() - leftOffset;
+        int rightLength = right.length() - rightOffset;
+        for (int i = 0; i < Math.min(leftLength, rightLength); i++) {
+            int cmp = Character.compare(left.charAt(leftOffset + i), right.charAt(rightOffset + i));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(leftLength, rightLength);
+    }
+
+    private List<Suffix> suffixes(long filmId) {
+        List<Suffix> suffixes = new ArrayList<>();
+        addSuffixes(titles.get(filmId), suffixes);
+        for (Long directorId : directorsByFilm.getOrDefault(filmId, Collections.emptySet())) {
+            addSuffixes(directorNames.get(directorId), suffixes);
+        }
+        return suffixes;
+    }
+
+    private static void addSuffixes(String text, List<Suffix> suffixes) {
+        String normalized = normalize(text);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                suffixes.add(new Suffix(normalized, i));
+            }
+        }
+    }
+
+    private void unlinkFilm(long filmId) {
+        Set<Long> directors = directorsByFilm.remove(filmId);
+        if (directors != null) {
+            for (Long directorId : directors) {
+                filmsByDirector.getOrDefault(directorId, Collections.emptySet()).remove(filmId);
+            }
+        }
+    }
+
+    private void link(long directorId, long filmId) {
+        filmsByDirector.computeIfAbsent(directorId, id -> new HashSet<>()).add(filmId);
+        directorsByFilm.computeIfAbsent(filmId, id -> new HashSet<>()).add(directorId);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    private void compactIfNeeded() {
+        if (pendingSize + removedSize > Math.max(MIN_PENDING, filmIds.length / 8)) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        List<Entry> entries = new ArrayList<>();
+        for (Long filmId : titles.keySet()) {
+            for (Suffix suffix : suffixes(filmId)) {
+                entries.add(new Entry(suffix.text(), suffix.offset(), filmId));
+            }
+        }
+        entries.sort((left, right) -> {
+            int cmp = compare(left.text(), left.offset(), right.text(), right.offset());
+            return cmp != 0 ? cmp : Long.compare(left.filmId(), right.filmId());
+        });
+        texts = new String[entries.size()];
+        offsets = new int[entries.size()];
+        filmIds = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            texts[i] = entries.get(i).text();
+            offsets[i] = entries.get(i).offset();
+            filmIds[i] = entries.get(i).filmId();
+        }
+        blocks = (filmIds.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        tops = new long[2 * blocks][];
+        for (int block = 0; block < blocks; block++) {
+            tops[blocks + block] = rankBlock(block);
+        }
+        for (int node = blocks - 1; node >= 1; node--) {
+            tops[node] = merge(tops[2 * node], tops[2 * node + 1]);
+        }
+        pending.clear();
+        pendingSize = 0;
+        removedSize = 0;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        jdbc.query(LOAD_FILMS, (ResultSet rs) -> {
+            titles.put(rs.getLong("film_id"), rs.getString("name"));
+        });
+        jdbc.query(LOAD_DIRECTORS, (ResultSet rs) -> {
+            directorNames.put(rs.getLong("director_id"), rs.getString("name"));
+        });
+        jdbc.query(LOAD_DIRECTED_BY, (ResultSet rs) -> {
+            link(rs.getLong("director_id"), rs.getLong("film_id"));
+        });
+        jdbc.query(LOAD_LIKES, (ResultSet rs) -> {
+            likes.put(rs.getLong("film_id"), rs.getLong("likes"));
+        });
+        compact();
+        loaded = true;
+        log.info("Индекс подсказок построен. Фильмов: {}, ключей: {}", titles.size(), filmIds.length);
+    }
+
+    private record Suffix(String text, int offset) {
+
+        String key() {
+            return text.substring(offset);
+        }
+    }
+
+    private record Entry(String text, int offset, long filmId) {
+    }
+}
@@ -0,0 +1,312 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class FriendGraph {
+    private static final String LOAD_FRIENDSHIPS = "SELECT user_id, friend_id FROM friendships";
+    private static final Comparator<Suggestion> WORST_FIRST = Comparator.comparingInt(Suggestion::mutualFriends)
+            .thenComparing(Comparator.comparingLong(Suggestion::userId).reversed());
+
+    private final JdbcTemplate jdbc;
+    private final int maxFanOut;
+    private final int maxPathDepth;
+    private final int maxPathVisited;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, long[]> friends = new HashMap<>();
+    private final Map<Long, long[]> followers = new HashMap<>();
+    private volatile boolean loaded;
+
+    public FriendGraph(JdbcTemplate jdbc,
+                       @Value("${filmorate.users.friends.suggestions.max-fan-out:1000}") int maxFanOut,
+                       @Value("${filmorate.users.path.max-depth:6}") int maxPathDepth,
+                       @Value("${filmorate.users.path.max-visited:200000}") int maxPathVisited) {
+        this.jdbc = jdbc;
+        this.maxFanOut = Math.max(1, maxFanOut);
+        this.maxPathDepth = maxPathDepth;
+        this.maxPathVisited = maxPathVisited;
+    }
+
+    public long[] getFriends(long userId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return friends.getOrDefault(userId, SortedLongArrays.EMPTY);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] getFriendsAfter(long userId, long afterId, int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            long[] all = friends.getOrDefault(userId, SortedLongArrays.EMPTY);
+            int from = Arrays.binarySearch(all, afterId);
+            from = from >= 0 ? from + 1 : -from - 1;
+            return Arrays.copyOfRange(all, from, Math.min(all.length, from + limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] getCommonFriends(long userId, long otherUserId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return SortedLongArrays.intersect(friends.getOrDefault(userId, SortedLongArrays.EMPTY),
+                    friends.getOrDefault(otherUserId, SortedLongArrays.EMPTY));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] suggestFriends(long userId, int count) {
+        if (count <= 0) {
+            return SortedLongArrays.EMPTY;
+        }
+        ensureLoaded();
+        MutualCounter counter = new MutualCounter();
+        lock.readLock().lock();
+        try {
+            long[] own = friends.getOrDefault(userId, SortedLongArrays.EMPTY);
+            int firstHop = Math.min(own.length, maxFanOut);
+            for (int i = 0; i < firstHop; i++) {
+                long[] secondHop = friends.getOrDefault(own[sampleIndex(i, own.length, firstHop)],
+                        SortedLongArrays.EMPTY);
+                int fanOut = Math.min(secondHop.length, maxFanOut);
+                for (int j = 0; j < fanOut; j++) {
+                    long candidateId = secondHop[sampleIndex(j, secondHop.length, fanOut)];
+                    if (candidateId != userId && Arrays.binarySearch(own, candidateId) < 0) {
+                        counter.increment(candidateId);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        PriorityQueue<Suggestion> top = new PriorityQueue<>(count + 1, WORST_FIRST);
+        counter.forEach((candidateId, mutualFriends) -> {
+            Suggestion suggestion = new Suggestion(candidateId, mutualFriends);
+            if (top.size() < count) {
+                top.add(suggestion);
+            } else if (WORST_FIRST.compare(suggestion, top.peek()) > 0) {
+                top.poll();
+                top.add(suggestion);
+            }
+        });
+        return top.stream()
+                .sorted(WORST_FIRST.reversed())
+                .mapToLong(Suggestion::userId)
+                .toArray();
+    }
+
+    public long[] findPath(long fromId, long toId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return new FriendPathSearch(fromId, toId, friends, followers, maxPathDepth, maxPathVisited).run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void addFriend(long userId, long friendId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            friends.put(userId, SortedLongArrays.insert(friends.getOrDefault(userId, SortedLongArrays.EMPTY), friendId));
+            followers.put(friendId, SortedLongArrays.insert(followers.getOrDefault(friendId, SortedLongArrays.EMPTY),
+                    userId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFriend(long userId, long friendId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            unlink(friends, userId, friendId);
+            unlink(followers, friendId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void userDeleted(long userId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            for (long friendId : friends.getOrDefault(userId, SortedLongArrays.EMPTY)) {
+                unlink(followers, friendId, userId);
+            }
+            for (long followerId : followers.getOrDefault(userId, SortedLongArrays.EMPTY)) {
+                unlink(friends, followerId, userId);
+            }
+            friends.remove(userId);
+            followers.remove(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            friends.clear();
+            followers.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Граф друзей сброшен и будет перестроен при следующем запросе");
+    }
+
+    private static int sampleIndex(int i, int length, int sampleSize) {
+        return sampleSize == length ? i : (int) ((long) i * length / sampleSize);
+    }
+
+    private static void unlink(Map<Long, long[]> adjacency, long userId, long otherId) {
+        long[] current = adjacency.get(userId);
+        if (current == null) {
+            return;
+        }
+        long[] updated = SortedLongArrays.remove(current, otherId);
+        if (updated.length == 0) {
+            adjacency.remove(userId);
+        } else {
+            adjacency.put(userId, updated);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        friends.clear();
+        followers.clear();
+        Map<Long, LongList> outgoing = new HashMap<>();
+        Map<Long, LongList> incoming = new HashMap<>();
+        long[] edges = {0};
+        jdbc.query(LOAD_FRIENDSHIPS, (ResultSet rs) -> {
+            long userId = rs.getLong("user_id");
+            long friendId = rs.getLong("friend_id");
+            outgoing.computeIfAbsent(userId, id -> new LongList()).add(friendId);
+            incoming.computeIfAbsent(friendId, id -> new LongList()).add(userId);
+            edges[0]++;
+        });
+        outgoing.forEach((userId, list) -> friends.put(userId, list.toSortedArray()));
+        incoming.forEach((userId, list) -> followers.put(userId, list.toSortedArray()));
+        loaded = true;
+        log.info("Граф друзей построен. Пользователей с друзьями: {}, связей: {}", friends.size(), edges[0]);
+    }
+
+    private record Suggestion(long userId, int mutualFriends) {
+    }
+
+    private interface MutualConsumer {
+
+        void accept(long userId, int mutualFriends);
+    }
+
+    private static final class MutualCounter {
+        private static final long FREE = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(64);
+        private int[] counts = new int[64];
+        private int size;
+
+        void increment(long key) {
+            int mask = keys.length - 1;
+            int idx = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+            while (keys[idx] != FREE && keys[idx] != key) {
+                idx = (idx + 1) & mask;
+            }
+            if (keys[idx] == FREE) {
+                keys[idx] = key;
+                size++;
+            }
+            counts[idx]++;
+            if (size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        void forEach(MutualConsumer consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != FREE) {
+                    consumer.accept(keys[i], counts[i]);
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = newKeys(oldKeys.length * 2);
+            counts = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    int idx = Long.hashCode(oldKeys[i] * 0x9E3779B97F4A7C15L) & mask;
+                    while (keys[idx] != FREE) {
+                        idx = (idx + 1) & mask;
+                    }
+                    keys[idx] = oldKeys[i];
+                    counts[idx] = oldCounts[i];
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] result = new long[capacity];
+            Arrays.fill(result, FREE);
+            return result;
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedArray() {
+            long[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import java.util.Arrays;
+import java.util.Map;
+
+final class FriendPathSearch {
+    private final Side forward;
+    private final Side backward;
+    private final int maxDepth;
+    private final int maxVisited;
+    private long meetingId;
+    private int bestLength = Integer.MAX_VALUE;
+
+    FriendPathSearch(long fromId, long toId, Map<Long, long[]> friends, Map<Long, long[]> followers,
+                     int maxDepth, int maxVisited) {
+        this.forward = new Side(fromId, friends);
+        this.backward = new Side(toId, followers);
+        this.maxDepth = maxDepth;
+        this.maxVisited = maxVisited;
+    }
+
+    long[] run() {
+        if (forward.rootId == backward.rootId) {
+            return new long[]{forward.rootId};
+        }
+        while (forward.frontierSize > 0 && backward.frontierSize > 0
+                && forward.depth + backward.depth < maxDepth
+                && visitedCount() <= maxVisited) {
+            if (forward.frontierSize <= backward.frontierSize) {
+                expand(forward, backward);
+            } else {
+                expand(backward, forward);
+            }
+            if (bestLength != Integer.MAX_VALUE) {
+                return buildPath();
+            }
+        }
+        return SortedLongArrays.EMPTY;
+    }
+
+    private void expand(Side side, Side other) {
+        long[] next = new long[Math.max(4, side.frontierSize)];
+        int nextSize = 0;
+        int nextDepth = side.depth + 1;
+        for (int i = 0; i < side.frontierSize && visitedCount() <= maxVisited; i++) {
+            long nodeId = side.frontier[i];
+            for (long neighbourId : side.adjacency.getOrDefault(nodeId, SortedLongArrays.EMPTY)) {
+                if (!side.visited.putIfAbsent(neighbourId, nodeId, nextDepth)) {
+                    continue;
+                }
+                int otherDepth = other.visited.depth(neighbourId);
+                if (otherDepth >= 0 && nextDepth + otherDepth < bestLength) {
+                    bestLength = nextDepth + otherDepth;
+                    meetingId = neighbourId;
+                }
+                if (nextSize == next.length) {
+                    next = Arrays.copyOf(next, nextSize * 2);
+                }
+                next[nextSize++] = neighbourId;
+            }
+        }
+        side.frontier = next;
+        side.frontierSize = nextSize;
+        side.depth = nextDepth;
+    }
+
+    private long[] buildPath() {
+        long[] path = new long[bestLength + 1];
+        int fromDepth = forward.visited.depth(meetingId);
+        long nodeId = meetingId;
+        for (int i = fromDepth; i > 0; i--) {
+            path[i] = nodeId;
+            nodeId = forward.visited.parent(nodeId);
+        }
+        path[0] = forward.rootId;
+        nodeId = meetingId;
+        for (int i = fromDepth + 1; i <= bestLength; i++) {
+            nodeId = backward.visited.parent(nodeId);
+            path[i] = nodeId;
+        }
+        return path;
+    }
+
+    private int visitedCount() {
+        return forward.visited.size + backward.visited.size;
+    }
+
+    private static final class Side {
+        private final long rootId;
+        private final Map<Long, long[]> adjacency;
+        private final VisitMap visited = new VisitMap();
+        private long[] frontier;
+        private int frontierSize;
+        private int depth;
+
+        Side(long rootId, Map<Long, long[]> adjacency) {
+            this.rootId = rootId;
+            this.adjacency = adjacency;
+            this.frontier = new long[]{rootId};
+            this.frontierSize = 1;
+            visited.putIfAbsent(rootId, rootId, 0);
+        }
+    }
+
+    private static final class VisitMap {
+        private static final long FREE = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(64);
+        private long[] parents = new long[64];
+        private int[] depths = new int[64];
+        private int size;
+
+        boolean putIfAbsent(long key, long parent, int depth) {
+            int idx = slot(keys, key);
+            if (keys[idx] == key) {
+                return false;
+            }
+            keys[idx] = key;
+            parents[idx] = parent;
+            depths[idx] = depth;
+            size++;
+            if (size * 2 > keys.length) {
+                grow();
+            }
+            return true;
+        }
+
+        int depth(long key) {
+            int idx = slot(keys, key);
+            return keys[idx] == key ? depths[idx] : -1;
+        }
+
+        long parent(long key) {
+            return parents[slot(keys, key)];
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldParents = parents;
+            int[] oldDepths = depths;
+            keys = newKeys(oldKeys.length * 2);
+            parents = new long[keys.length];
+            depths = new int[keys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    int idx = slot(keys, oldKeys[i]);
+                    keys[idx] = oldKeys[i];
+                    parents[idx] = oldParents[i];
+                    depths[idx] = oldDepths[i];
+                }
+            }
+        }
+
+        private static int slot(long[] keys, long key) {
+            int mask = keys.length - 1;
+            int idx = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+            while (keys[idx] != FREE && keys[idx] != key) {
+                idx = (idx + 1) & mask;
+            }
+            return idx;
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] result = new long[capacity];
+            Arrays.fill(result, FREE);
+            return result;
+        }
+    }
+}
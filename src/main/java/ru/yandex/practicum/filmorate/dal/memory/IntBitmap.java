@@ -0,0 +1,428 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public final class IntBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    public boolean add(int value) {
+        char key = highBits(value);
+        int idx = indexOf(key);
+        if (idx < 0) {
+            idx = -idx - 1;
+            insertContainer(idx, key, new ArrayContainer());
+        }
+        Container container = containers[idx];
+        int before = container.cardinality();
+        containers[idx] = container.add((char) value);
+        return containers[idx].cardinality() > before;
+    }
+
+    public boolean remove(int value) {
+        int idx = indexOf(highBits(value));
+        if (idx < 0) {
+            return false;
+        }
+        Container container = containers[idx];
+        int before = container.cardinality();
+        Container updated = container.remove((char) value);
+        if (updated.cardinality() == 0) {
+            removeContainer(idx);
+        } else {
+            containers[idx] = updated;
+        }
+        return updated.cardinality() < before;
+    }
+
+    public boolean contains(int value) {
+        int idx = indexOf(highBits(value));
+        return idx >= 0 && containers[idx].contains((char) value);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public int andCardinality(IntBitmap other) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    public void or(IntBitmap other) {
+        for (int j = 0; j < other.size; j++) {
+            int idx = indexOf(other.keys[j]);
+            if (idx < 0) {
+                insertContainer(-idx - 1, other.keys[j], other.containers[j].copy());
+            } else {
+                containers[idx] = containers[idx].or(other.containers[j]);
+            }
+        }
+    }
+
+    public void andNot(IntBitmap other) {
+        int i = 0;
+        while (i < size) {
+            int idx = other.indexOf(keys[i]);
+            if (idx >= 0) {
+                Container updated = containers[i].andNot(other.containers[idx]);
+                if (updated.cardinality() == 0) {
+                    removeContainer(i);
+                    continue;
+                }
+                containers[i] = updated;
+            }
+            i++;
+        }
+    }
+
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int[] size = {0};
+        forEach(value -> values[size[0]++] = value);
+        return values;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    private static char highBits(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int idx, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, idx, keys, idx + 1, size - idx);
+        System.arraycopy(containers, idx, containers, idx + 1, size - idx);
+        keys[idx] = key;
+        containers[idx] = container;
+        size++;
+    }
+
+    private void removeContainer(int idx) {
+        System.arraycopy(keys, idx + 1, keys, idx, size - idx - 1);
+        System.arraycopy(containers, idx + 1, containers, idx, size - idx - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private interface Container {
+
+        Container add(char value);
+
+        Container remove(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        int andCardinality(Container other);
+
+        Container or(Container other);
+
+        Container andNot(Container other);
+
+        Container copy();
+
+        void forEach(int base, IntConsumer consumer);
+    }
+
+    private static final class ArrayContainer implements Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            int idx = Arrays.binarySearch(values, 0, cardinality, value);
+            if (idx >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            idx = -idx - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, values.length * 2));
+            }
+            System.arraycopy(values, idx, values, idx + 1, cardinality - idx);
+            values[idx] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int idx = Arrays.binarySearch(values, 0, cardinality, value);
+            if (idx >= 0) {
+                System.arraycopy(values, idx + 1, values, idx, cardinality - idx - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public int andCardinality(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                return bitmap.andCardinality(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < array.cardinality) {
+                if (values[i] < array.values[j]) {
+                    i++;
+                } else if (values[i] > array.values[j]) {
+                    j++;
+                } else {
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                return bitmap.copy().or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            char[] merged = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    merged[count++] = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    merged[count++] = array.values[j++];
+                } else {
+                    merged[count++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer result = new ArrayContainer(merged, count);
+            return count > ARRAY_LIMIT ? result.toBitmap() : result;
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            char[] remaining = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    remaining[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(remaining, count);
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(4, cardinality)), cardinality);
+        }
+
+        @Override
+        public void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(base | values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer(new long[BITMAP_WORDS], 0);
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.set(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public Container add(char value) {
+            set(value);
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) != 0) {
+                words[value >>> 6] &= ~mask;
+                cardinality--;
+            }
+            return cardinality <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public int andCardinality(Container other) {
+            int count = 0;
+            if (other instanceof BitmapContainer bitmap) {
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    count += Long.bitCount(words[i] & bitmap.words[i]);
+                }
+            } else {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    if (contains(array.values[i])) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                cardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] |= bitmap.words[i];
+                    cardinality += Long.bitCount(words[i]);
+                }
+            } else {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    set(array.values[i]);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                cardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] &= ~bitmap.words[i];
+                    cardinality += Long.bitCount(words[i]);
+                }
+            } else {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    char value = array.values[i];
+                    long mask = 1L << value;
+                    if ((words[value >>> 6] & mask) != 0) {
+                        words[value >>> 6] &= ~mask;
+                        cardinality--;
+                    }
+                }
+            }
+            return cardinality <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        public void forEach(int base, IntConsumer consumer) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(base | (i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        void set(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) == 0) {
+                words[value >>> 6] |= mask;
+                cardinality++;
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(4, cardinality)];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+public interface LikeListener {
+
+    void likeAdded(long filmId, long userId);
+
+    void likeRemoved(long filmId, long userId);
+
+    default void filmDeleted(long filmId) {
+    }
+
+    default void userDeleted(long userId) {
+    }
+}
@@ -0,0 +1,441 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class LikeMatrix implements LikeListener {
+    private static final String LOAD_LIKES = "SELECT film_id, user_id FROM likes";
+
+    private final JdbcTemplate jdbc;
+    private final ForkJoinPool pool;
+    private final int partitionSize;
+    private final int maxNeighbours;
+    private final boolean precomputeNeighbours;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, IntBitmap> filmsByUser = new HashMap<>();
+    private final Map<Integer, IntBitmap> usersByFilm = new HashMap<>();
+    private final Map<Integer, Neighbours> neighboursByFilm = new ConcurrentHashMap<>();
+    private final RecommendationCache recommendations;
+    private volatile boolean loaded;
+    private volatile boolean supported = true;
+
+    public LikeMatrix(JdbcTemplate jdbc,
+                      @Value("${filmorate.recommendations.parallelism:0}") int parallelism,
+                      @Value("${filmorate.recommendations.partition-size:4096}") int partitionSize,
+                      @Value("${filmorate.films.similar.max-neighbours:50}") int maxNeighbours,
+                      @Value("${filmorate.films.similar.precompute:true}") boolean precomputeNeighbours,
+                      @Value("${filmorate.recommendations.cache.max-entries:10000}") int maxCachedUsers) {
+        this.jdbc = jdbc;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.partitionSize = Math.max(1, partitionSize);
+        this.maxNeighbours = maxNeighbours;
+        this.precomputeNeighbours = precomputeNeighbours;
+        this.recommendations = new RecommendationCache(maxCachedUsers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public boolean isSupported() {
+        ensureLoaded();
+        return supported;
+    }
+
+    public List<Long> recommend(long userId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            if (!isIntId(userId)) {
+                return Collections.emptyList();
+            }
+            List<Long> cached = recommendations.get((int) userId);
+            if (cached != null) {
+                return cached;
+            }
+            IntBitmap liked = filmsByUser.get((int) userId);
+            if (liked == null || liked.isEmpty()) {
+                recommendations.put((int) userId, Collections.emptyList(), new int[0]);
+                return Collections.emptyList();
+            }
+            IntBitmap neighbours = new IntBitmap();
+            liked.forEach(filmId -> neighbours.or(usersByFilm.get(filmId)));
+            neighbours.remove((int) userId);
+            int[] candidates = new int[neighbours.cardinality()];
+            int[] count = {0};
+            neighbours.forEach(otherId -> candidates[count[0]++] = otherId);
+
+            SimilarityScan scan = new SimilarityScan(liked, candidates, 0, candidates.length);
+            Closest closest = candidates.length <= partitionSize ? scan.compute() : pool.invoke(scan);
+
+            IntBitmap recommended = new IntBitmap();
+            for (int i = 0; i < closest.size; i++) {
+                recommended.or(filmsByUser.get(closest.users[i]));
+            }
+            recommended.andNot(liked);
+            List<Long> filmIds = new ArrayList<>(recommended.cardinality());
+            recommended.forEach(filmId -> filmIds.add((long) filmId));
+            recommendations.put((int) userId, filmIds, Arrays.copyOf(closest.users, closest.size));
+            return filmIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> findCommonFilms(Collection<Long> userIds, int minUsers) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            int[][] likedFilms = userIds.stream()
+                    .distinct()
+                    .map(userId -> {
+                        IntBitmap liked = isIntId(userId) ? filmsByUser.get((int) (long) userId) : null;
+                        return liked != null ? liked.toArray() : new int[0];
+                    })
+                    .toArray(int[][]::new);
+            int[] common = SortedIntArrays.atLeast(likedFilms, minUsers);
+            List<Long> filmIds = new ArrayList<>(common.length);
+            for (int filmId : common) {
+                filmIds.add((long) filmId);
+            }
+            return filmIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> getMostActiveUsers(int count) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return filmsByUser.entrySet().stream()
+                    .sorted(Comparator.comparingInt((Map.Entry<Integer, IntBitmap> row) -> row.getValue().cardinality())
+                            .reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(count)
+                    .map(row -> (long) row.getKey())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public CacheStats getRecommendationCacheStats() {
+        return recommendations.stats();
+    }
+
+    public List<Long> findSimilar(long filmId, int count) {
+        ensureLoaded();
+        if (!isIntId(filmId)) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Neighbours neighbours = neighbours((int) filmId);
+            List<Long> filmIds = new ArrayList<>(Math.min(count, neighbours.filmIds().length));
+            for (int i = 0; i < neighbours.filmIds().length && filmIds.size() < count; i++) {
+                filmIds.add((long) neighbours.filmIds()[i]);
+            }
+            return filmIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> recommendByItems(long userId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            IntBitmap liked = isIntId(userId) ? filmsByUser.get((int) userId) : null;
+            if (liked == null || liked.isEmpty()) {
+                return Collections.emptyList();
+            }
+            Map<Integer, Integer> scores = new HashMap<>();
+            liked.forEach(filmId -> {
+                Neighbours neighbours = neighbours(filmId);
+                for (int i = 0; i < neighbours.filmIds().length; i++) {
+                    if (!liked.contains(neighbours.filmIds()[i])) {
+                        scores.merge(neighbours.filmIds()[i], neighbours.counts()[i], Integer::sum);
+                    }
+                }
+            });
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .map(score -> (long) score.getKey())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            filmsByUser.clear();
+            usersByFilm.clear();
+            neighboursByFilm.clear();
+            recommendations.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void likeAdded(long filmId, long userId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            put(filmId, userId);
+            likeChanged(filmId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void likeRemoved(long filmId, long userId) {
+        if (!isIntId(filmId) || !isIntId(userId)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            remove(filmsByUser, (int) userId, (int) filmId);
+            remove(usersByFilm, (int) filmId, (int) userId);
+            likeChanged(filmId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void filmDeleted(long filmId) {
+        if (!isIntId(filmId)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            IntBitmap users = usersByFilm.remove((int) filmId);
+            if (users != null) {
+                users.forEach(userId -> {
+                    remove(filmsByUser, userId, (int) filmId);
+                    likeChanged(filmId, userId);
+                });
+            }
+            neighboursByFilm.remove((int) filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void userDeleted(long userId) {
+        if (!isIntId(userId)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            IntBitmap films = filmsByUser.remove((int) userId);
+            if (films != null) {
+                films.forEach(filmId -> {
+                    remove(usersByFilm, filmId, (int) userId);
+                    neighboursByFilm.remove(filmId);
+                });
+            }
+            recommendations.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(long filmId, long userId) {
+        if (!isIntId(filmId) || !isIntId(userId)) {
+            supported = false;
+            return;
+        }
+        filmsByUser.computeIfAbsent((int) userId, id -> new IntBitmap()).add((int) filmId);
+        usersByFilm.computeIfAbsent((int) filmId, id -> new IntBitmap()).add((int) userId);
+    }
+
+    private void likeChanged(long filmId, long userId) {
+        neighboursByFilm.remove((int) filmId);
+        IntBitmap films = filmsByUser.get((int) userId);
+        if (films != null) {
+            films.forEach(neighboursByFilm::remove);
+        }
+        recommendations.invalidate((int) userId);
+        recommendations.invalidateDependents((int) userId);
+        IntBitmap likers = usersByFilm.get((int) filmId);
+        if (likers != null) {
+            likers.forEach(recommendations::invalidate);
+        }
+    }
+
+    private Neighbours neighbours(int filmId) {
+        Neighbours neighbours = neighboursByFilm.get(filmId);
+        if (neighbours == null) {
+            neighbours = computeNeighbours(filmId);
+            neighboursByFilm.put(filmId, neighbours);
+        }
+        return neighbours;
+    }
+
+    private Neighbours computeNeighbours(int filmId) {
+        IntBitmap users = usersByFilm.get(filmId);
+        if (users == null) {
+            return Neighbours.EMPTY;
+        }
+        Map<Integer, Integer> coLikes = new HashMap<>();
+        users.forEach(userId -> filmsByUser.get(userId).forEach(otherId -> {
+            if (otherId != filmId) {
+                coLikes.merge(otherId, 1, Integer::sum);
+            }
+        }));
+        List<Map.Entry<Integer, Integer>> top = coLikes.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(maxNeighbours)
+                .toList();
+        int[] filmIds = new int[top.size()];
+        int[] counts = new int[top.size()];
+        for (int i = 0; i < top.size(); i++) {
+            filmIds[i] = top.get(i).getKey();
+            counts[i] = top.get(i).getValue();
+        }
+        return new Neighbours(filmIds, counts);
+    }
+
+    private static void remove(Map<Integer, IntBitmap> rows, int rowId, int columnId) {
+        IntBitmap row = rows.get(rowId);
+        if (row != null && row.remove(columnId) && row.isEmpty()) {
+            rows.remove(rowId);
+        }
+    }
+
+    private final class SimilarityScan extends RecursiveTask<Closest> {
+        private final IntBitmap liked;
+        private final int[] candidates;
+        private final int from;
+        private final int to;
+
+        SimilarityScan(IntBitmap liked, int[] candidates, int from, int to) {
+            this.liked = liked;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Closest compute() {
+            if (to - from > partitionSize) {
+                int middle = (from + to) >>> 1;
+                SimilarityScan left = new SimilarityScan(liked, candidates, from, middle);
+                left.fork();
+                Closest right = new SimilarityScan(liked, candidates, middle, to).compute();
+                return left.join().merge(right);
+            }
+            Closest closest = new Closest();
+            for (int i = from; i < to; i++) {
+                closest.offer(candidates[i], liked.andCardinality(filmsByUser.get(candidates[i])));
+            }
+            return closest;
+        }
+    }
+
+    public record CacheStats(long hits, long misses, long invalidations, long evictions, long size) {
+    }
+
+    private record Neighbours(int[] filmIds, int[] counts) {
+        private static final Neighbours EMPTY = new Neighbours(new int[0], new int[0]);
+    }
+
+    private static final class Closest {
+        private int common;
+        private int[] users = new int[4];
+        private int size;
+
+        void offer(int userId, int overlap) {
+            if (overlap < common) {
+                return;
+            }
+            if (overlap > common) {
+                common = overlap;
+                size = 0;
+            }
+            if (size == users.length) {
+                users = Arrays.copyOf(users, size * 2);
+            }
+            users[size++] = userId;
+        }
+
+        Closest merge(Closest other) {
+            if (other.common > common) {
+                return other;
+            }
+            if (other.common == common) {
+                for (int i = 0; i < other.size; i++) {
+                    offer(other.users[i], other.common);
+                }
+            }
+            return this;
+        }
+    }
+
+    private static boolean isIntId(long id) {
+        return id >= 0 && id <= Integer.MAX_VALUE;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                filmsByUser.clear();
+                usersByFilm.clear();
+                supported = true;
+                jdbc.query(LOAD_LIKES, (ResultSet rs) -> {
+                    put(rs.getLong("film_id"), rs.getLong("user_id"));
+                });
+                neighboursByFilm.clear();
+                recommendations.clear();
+                if (precomputeNeighbours) {
+                    pool.submit(() -> usersByFilm.keySet().parallelStream()
+                            .forEach(filmId -> neighboursByFilm.put(filmId, computeNeighbours(filmId)))).join();
+                }
+                loaded = true;
+                log.info("Матрица лайков построена. Пользователей: {}, фильмов: {}",
+                        filmsByUser.size(), usersByFilm.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class PopularityLeaderboard implements LikeListener {
+    private static final String LOAD_FILMS = "SELECT film_id, release_date, COALESCE(rate, 0) AS likes FROM films";
+    private static final String LOAD_LIKES = "SELECT COALESCE(rate, 0) FROM films WHERE film_id = ?";
+    private static final String LOAD_FILM_GENRES = "SELECT film_id, genre_id FROM film_genres";
+    private static final Comparator<Entry> BY_LIKES = Comparator.comparingLong(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final JdbcTemplate jdbc;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> global = new TreeSet<>(BY_LIKES);
+    private final Map<Long, NavigableSet<Entry>> byGenre = new HashMap<>();
+    private final Map<Integer, NavigableSet<Entry>> byYear = new HashMap<>();
+    private volatile boolean loaded;
+
+    public PopularityLeaderboard(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public List<Long> getTop(int count, Long genreId, Integer year) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> bucket = selectBucket(genreId, year);
+            List<Long> top = new ArrayList<>(Math.min(count, bucket.size()));
+            for (Entry entry : bucket) {
+                if (top.size() == count) {
+                    break;
+                }
+                if (entry.matches(genreId, year)) {
+                    top.add(entry.filmId());
+                }
+            }
+            return top;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getLikes(long filmId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(filmId);
+            return entry != null ? entry.likes() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(long filmId, LocalDate releaseDate, Collection<Long> genreIds) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            Entry previous = entries.get(filmId);
+            long likes = 0;
+            if (previous != null) {
+                likes = previous.likes();
+                unindex(previous);
+            }
+            Integer year = releaseDate != null ? releaseDate.getYear() : null;
+            long[] genres = genreIds.stream()
+                    .distinct()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            index(new Entry(filmId, likes, year, genres));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Рейтинг популярности сброшен и будет перестроен при следующем запросе");
+    }
+
+    @Override
+    public void likeAdded(long filmId, long userId) {
+        refresh(filmId);
+    }
+
+    @Override
+    public void likeRemoved(long filmId, long userId) {
+        refresh(filmId);
+    }
+
+    @Override
+    public void filmDeleted(long filmId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            Entry entry = entries.get(filmId);
+            if (entry != null) {
+                unindex(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void userDeleted(long userId) {
+        invalidate();
+    }
+
+    private void refresh(long filmId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            Entry entry = entries.get(filmId);
+            if (entry == null) {
+                return;
+            }
+            List<Long> likes = jdbc.queryForList(LOAD_LIKES, Long.class, filmId);
+            unindex(entry);
+            if (!likes.isEmpty()) {
+                index(new Entry(filmId, likes.get(0), entry.year(), entry.genreIds()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private NavigableSet<Entry> selectBucket(Long genreId, Integer year) {
+        if (genreId != null && year != null) {
+            NavigableSet<Entry> genreBucket = byGenre.getOrDefault(genreId, Collections.emptyNavigableSet());
+            NavigableSet<Entry> yearBucket = byYear.getOrDefault(year, Collections.emptyNavigableSet());
+            return genreBucket.size() <= yearBucket.size() ? genreBucket : yearBucket;
+        } else if (genreId != null) {
+            return byGenre.getOrDefault(genreId, Collections.emptyNavigableSet());
+        } else if (year != null) {
+            return byYear.getOrDefault(year, Collections.emptyNavigableSet());
+        }
+        return global;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        clear();
+        Map<Long, List<Long>> genresByFilm = new HashMap<>();
+        jdbc.query(LOAD_FILM_GENRES, (ResultSet rs) -> {
+            genresByFilm.computeIfAbsent(rs.getLong("film_id"), id -> new ArrayList<>())
+                    .add(rs.getLong("genre_id"));
+        });
+        jdbc.query(LOAD_FILMS, (ResultSet rs) -> {
+            long filmId = rs.getLong("film_id");
+            Date releaseDate = rs.getDate("release_date");
+            long[] genres = genresByFilm.getOrDefault(filmId, Collections.emptyList()).stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+            index(new Entry(filmId, rs.getLong("likes"),
+                    releaseDate != null ? releaseDate.toLocalDate().getYear() : null, genres));
+        });
+        loaded = true;
+        log.info("Рейтинг популярности построен. Количество фильмов: {}", entries.size());
+    }
+
+    private void index(Entry entry) {
+        entries.put(entry.filmId(), entry);
+        global.add(entry);
+        for (long genreId : entry.genreIds()) {
+            byGenre.computeIfAbsent(genreId, id -> new TreeSet<>(BY_LIKES)).add(entry);
+        }
+        if (entry.year() != null) {
+            byYear.computeIfAbsent(entry.year(), y -> new TreeSet<>(BY_LIKES)).add(entry);
+        }
+    }
+
+    private void unindex(Entry entry) {
+        entries.remove(entry.filmId());
+        global.remove(entry);
+        for (long genreId : entry.genreIds()) {
+            NavigableSet<Entry> bucket = byGenre.get(genreId);
+            if (bucket != null) {
+                bucket.remove(entry);
+            }
+        }
+        if (entry.year() != null) {
+            NavigableSet<Entry> bucket = byYear.get(entry.year());
+            if (bucket != null) {
+                bucket.remove(entry);
+            }
+        }
+    }
+
+    private void clear() {
+        entries.clear();
+        global.clear();
+        byGenre.clear();
+        byYear.clear();
+    }
+
+    private record Entry(long filmId, long likes, Integer year, long[] genreIds) {
+
+        boolean matches(Long genreId, Integer year) {
+            if (year != null && !year.equals(this.year)) {
+                return false;
+            }
+            if (genreId == null) {
+                return true;
+            }
+            for (long id : genreIds) {
+                if (id == genreId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+final class RecommendationCache {
+    private final Map<Integer, Entry> entries;
+    private final Map<Integer, Set<Integer>> dependents = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    RecommendationCache(int maxEntries) {
+        int capacity = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                evictions.increment();
+                unlink(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    synchronized List<Long> get(int userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.filmIds();
+    }
+
+    synchronized void put(int userId, List<Long> filmIds, int[] neighbours) {
+        Entry previous = entries.put(userId, new Entry(List.copyOf(filmIds), neighbours));
+        if (previous != null) {
+            unlink(userId, previous);
+        }
+        for (int neighbourId : neighbours) {
+            dependents.computeIfAbsent(neighbourId, id -> new HashSet<>()).add(userId);
+        }
+    }
+
+    synchronized void invalidate(int userId) {
+        Entry entry = entries.remove(userId);
+        if (entry == null) {
+            return;
+        }
+        invalidations.increment();
+        unlink(userId, entry);
+    }
+
+    synchronized void invalidateDependents(int neighbourId) {
+        Set<Integer> users = dependents.remove(neighbourId);
+        if (users != null) {
+            users.forEach(this::invalidate);
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        dependents.clear();
+    }
+
+    synchronized LikeMatrix.CacheStats stats() {
+        return new LikeMatrix.CacheStats(hits.sum(), misses.sum(), invalidations.sum(), evictions.sum(),
+                entries.size());
+    }
+
+    private void unlink(int userId, Entry entry) {
+        for (int neighbourId : entry.neighbours()) {
+            Set<Integer> users = dependents.get(neighbourId);
+            if (users != null) {
+                users.remove(userId);
+                if (users.isEmpty()) {
+                    dependents.remove(neighbourId);
+                }
+            }
+        }
+    }
+
+    private record Entry(List<Long> filmIds, int[] neighbours) {
+    }
+}
@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.DirectorRepository;
+import ru.yandex.practicum.filmorate.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.dal.MpaRepository;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class ReferenceDataRegistry {
+    private final GenreRepository genreRepository;
+    private final MpaRepository mpaRepository;
+    private final DirectorRepository directorRepository;
+    private volatile Snapshot snapshot;
+
+    public ReferenceDataRegistry(GenreRepository genreRepository, MpaRepository mpaRepository,
+                                 DirectorRepository directorRepository) {
+        this.genreRepository = genreRepository;
+        this.mpaRepository = mpaRepository;
+        this.directorRepository = directorRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        snapshot();
+    }
+
+    public List<Genre> getGenres() {
+        return new ArrayList<>(snapshot().genres().values());
+    }
+
+    public Optional<Genre> getGenre(long id) {
+        return Optional.ofNullable(snapshot().genres().get(id));
+    }
+
+    public List<Mpa> getMpas() {
+        return new ArrayList<>(snapshot().mpas().values());
+    }
+
+    public Optional<Mpa> getMpa(long id) {
+        return Optional.ofNullable(snapshot().mpas().get(id));
+    }
+
+    public List<Director> getDirectors() {
+        return new ArrayList<>(snapshot().directors().values());
+    }
+
+    public Optional<Director> getDirector(long id) {
+        return Optional.ofNullable(snapshot().directors().get(id));
+    }
+
+    public synchronized void putDirector(Director director) {
+        Snapshot current = snapshot();
+        Map<Long, Director> directors = new TreeMap<>(current.directors());
+        directors.put(director.getId(), director);
+        snapshot = new Snapshot(current.genres(), current.mpas(), Collections.unmodifiableMap(directors));
+    }
+
+    public synchronized void removeDirector(long id) {
+        Snapshot current = snapshot();
+        Map<Long, Director> directors = new TreeMap<>(current.directors());
+        directors.remove(id);
+        snapshot = new Snapshot(current.genres(), current.mpas(), Collections.unmodifiableMap(directors));
+    }
+
+    public synchronized void refresh() {
+        snapshot = new Snapshot(
+                index(genreRepository.findAll(), Genre::getId),
+                index(mpaRepository.findAll(), Mpa::getId),
+                index(directorRepository.findAll(), Director::getId));
+        log.info("Справочники загружены: жанров {}, рейтингов MPA {}, режиссёров {}",
+                snapshot.genres().size(), snapshot.mpas().size(), snapshot.directors().size());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static <T> Map<Long, T> index(List<T> values, Function<T, Long> idGetter) {
+        return Collections.unmodifiableMap(values.stream()
+                .collect(Collectors.toMap(idGetter, Function.identity(), (first, second) -> first, TreeMap::new)));
+    }
+
+    private record Snapshot(Map<Long, Genre> genres, Map<Long, Mpa> mpas, Map<Long, Director> directors) {
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+final class SortedIntArrays {
+
+    private SortedIntArrays() {
+    }
+
+    static int[] intersectAll(int[][] arrays) {
+        if (arrays.length == 0) {
+            return new int[0];
+        }
+        int[][] sorted = arrays.clone();
+        Arrays.sort(sorted, Comparator.comparingInt(array -> array.length));
+        int[] result = sorted[0];
+        for (int i = 1; i < sorted.length && result.length > 0; i++) {
+            result = intersect(result, sorted[i]);
+        }
+        return result;
+    }
+
+    static int[] atLeast(int[][] arrays, int minCount) {
+        if (minCount >= arrays.length) {
+            return intersectAll(arrays);
+        }
+        int[][] sorted = arrays.clone();
+        Arrays.sort(sorted, Comparator.comparingInt(array -> array.length));
+        int prefix = arrays.length - minCount + 1;
+        int total = 0;
+        for (int i = 0; i < prefix; i++) {
+            total += sorted[i].length;
+        }
+        int[] candidates = new int[total];
+        int offset = 0;
+        for (int i = 0; i < prefix; i++) {
+            System.arraycopy(sorted[i], 0, candidates, offset, sorted[i].length);
+            offset += sorted[i].length;
+        }
+        Arrays.sort(candidates);
+        int[] result = new int[candidates.length];
+        int size = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            if (i > 0 && candidates[i] == candidates[i - 1]) {
+                continue;
+            }
+            int count = 0;
+            for (int[] array : sorted) {
+                if (Arrays.binarySearch(array, candidates[i]) >= 0 && ++count >= minCount) {
+                    result[size++] = candidates[i];
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    static int[] intersect(int[] small, int[] large) {
+        int[] result = new int[small.length];
+        int size = 0;
+        int position = 0;
+        for (int value : small) {
+            position = gallop(large, position, value);
+            if (position == large.length) {
+                break;
+            }
+            if (large[position] == value) {
+                result[size++] = value;
+                position++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static int gallop(int[] array, int from, int target) {
+        if (from >= array.length || array[from] >= target) {
+            return from;
+        }
+        int bound = 1;
+        while (from + bound < array.length && array[from + bound] < target) {
+            bound <<= 1;
+        }
+        int low = from + (bound >> 1) + 1;
+        int high = Math.min(from + bound + 1, array.length);
+        int idx = Arrays.binarySearch(array, low, high, target);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.dal.memory;
+
+import java.util.Arrays;
+
+final class SortedLongArrays {
+    static final long[] EMPTY = new long[0];
+
+    private SortedLongArrays() {
+    }
+
+    static long[] insert(long[] array, long value) {
+        int idx = Arrays.binarySearch(array, value);
+        if (idx >= 0) {
+            return array;
+        }
+        idx = -idx - 1;
+        long[] result = new long[array.length + 1];
+        System.arraycopy(array, 0, result, 0, idx);
+        result[idx] = value;
+        System.arraycopy(array, idx, result, idx + 1, array.length - idx);
+        return result;
+    }
+
+    static long[] remove(long[] array, long value) {
+        int idx = Arrays.binarySearch(array, value);
+        if (idx < 0) {
+            return array;
+        }
+        if (array.length == 1) {
+            return EMPTY;
+        }
+        long[] result = new long[array.length - 1];
+        System.arraycopy(array, 0, result, 0, idx);
+        System.arraycopy(array, idx + 1, result, idx, array.length - idx - 1);
+        return result;
+    }
+
+    static long[] intersect(long[] first, long[] second) {
+        long[] result = new long[Math.min(first.length, second.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+}
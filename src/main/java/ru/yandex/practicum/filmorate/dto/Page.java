@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class Page<T> {
+    private List<T> items;
+    private String nextCursor;
+
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(PageCursor.HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+@Data
+@AllArgsConstructor
+public class PageCursor {
+    public static final String HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private long sortKey;
+    private long id;
+
+    public String encode() {
+        byte[] bytes = ByteBuffer.allocate(2 * Long.BYTES)
+                .putLong(sortKey)
+                .putLong(id)
+                .array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static PageCursor decode(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
+        if (bytes.length != 2 * Long.BYTES) {
+            throw new ValidationException("Некорректный курсор: " + cursor);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new PageCursor(buffer.getLong(), buffer.getLong());
+    }
+
+    public static void checkLimit(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_LIMIT);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.dto.film;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class FilmImportResultDto {
+    private long lines;
+    private long imported;
+    private long failed;
+    private long elapsedMs;
+    private double filmsPerSecond;
+    private List<FilmImportErrorDto> errors = new ArrayList<>();
+}
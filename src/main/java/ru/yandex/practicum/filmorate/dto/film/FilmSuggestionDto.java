@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.dto.film;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilmSuggestionDto {
+    private Long id;
+    private String name;
+}
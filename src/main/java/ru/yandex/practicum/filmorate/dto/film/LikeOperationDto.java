@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.dto.film;
+
+import lombok.Data;
+import ru.yandex.practicum.filmorate.model.enums.OperationType;
+
+@Data
+public class LikeOperationDto {
+    private Long filmId;
+    private Long userId;
+    private OperationType op;
+}
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.dto.film;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.yandex.practicum.filmorate.model.enums.LikeOperationStatus;
+import ru.yandex.practicum.filmorate.model.enums.OperationType;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeOperationResultDto {
+    private Long filmId;
+    private Long userId;
+    private OperationType op;
+    private LikeOperationStatus status;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.dto.user;
+
+import lombok.Data;
+import ru.yandex.practicum.filmorate.model.enums.RecommendationMode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class RecommendationBatchRequest {
+    private List<Long> userIds = new ArrayList<>();
+    private boolean all;
+    private RecommendationMode mode = RecommendationMode.user;
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRecommendationsDto {
+    private Long userId;
+    private List<Long> filmIds;
+    private String message;
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.yandex.practicum.filmorate.model.enums.OperationType;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikeOperation {
+    private Long filmId;
+    private Long userId;
+    private OperationType operation;
+}
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.model.enums;
+
+public enum LikeOperationStatus {
+    APPLIED,
+    UNCHANGED,
+    SUPERSEDED,
+    NOT_FOUND,
+    INVALID
+}
@@ -4,10 +4,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dal.DirectorRepository;
+import ru.yandex.practicum.filmorate.dal.memory.FilmCache;
+import ru.yandex.practicum.filmorate.dal.memory.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.dal.memory.FilmSuggestIndex;
+import ru.yandex.practicum.filmorate.dal.memory.ReferenceDataRegistry;
 import ru.yandex.practicum.filmorate.dto.DirectorDto;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.mapper.DirectorMapper;
+import ru.yandex.practicum.filmorate.model.Director;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -18,15 +23,19 @@ import java.util.stream.Collectors;
 public class DirectorService {
 
     private final DirectorRepository directorRepository;
+    private final FilmCache filmCache;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final FilmSearchIndex filmSearchIndex;
+    private final FilmSuggestIndex filmSuggestIndex;
 
     public List<DirectorDto> findAll() {
-        return directorRepository.findAll().stream()
+        return referenceDataRegistry.getDirectors().stream()
                 .map(DirectorMapper::mapToDirectorDto)
                 .collect(Collectors.toList());
     }
 
     public DirectorDto getById(Long id) {
-        return directorRepository.getById(id)
+        return referenceDataRegistry.getDirector(id)
                 .map(DirectorMapper::mapToDirectorDto)
                 .orElseThrow(() -> new NotFoundException("Режиссер с id = " + id + "не найден"));
     }
@@ -35,17 +44,30 @@ public class DirectorService {
         if (newDirector.getName() == null || newDirector.getName().isBlank()) {
             throw new ValidationException("Имя режиссёра не должно быть пустым");
         }
-        return DirectorMapper.mapToDirectorDto(directorRepository.create(DirectorMapper.mapDtoToDirector(newDirector)));
+        Director director = directorRepository.create(DirectorMapper.mapDtoToDirector(newDirector));
+        referenceDataRegistry.putDirector(director);
+        filmSearchIndex.putDirector(director.getId(), director.getName());
+        filmSuggestIndex.putDirector(director.getId(), director.getName());
+        return DirectorMapper.mapToDirectorDto(director);
     }
 
     public DirectorDto update(DirectorDto newDirector) {
-        return DirectorMapper.mapToDirectorDto(directorRepository.update(DirectorMapper.mapDtoToDirector(newDirector)));
+        Director director = directorRepository.update(DirectorMapper.mapDtoToDirector(newDirector));
+        referenceDataRegistry.putDirector(director);
+        filmSearchIndex.putDirector(director.getId(), director.getName());
+        filmSuggestIndex.putDirector(director.getId(), director.getName());
+        filmCache.evictByDirector(director.getId());
+        return DirectorMapper.mapToDirectorDto(director);
     }
 
     public boolean delete(Long id) {
         if (!directorRepository.delete(id)) {
             throw new NotFoundException("Режиссер с id = " + id + "не найден");
         }
+        referenceDataRegistry.removeDirector(id);
+        filmSearchIndex.removeDirector(id);
+        filmSuggestIndex.removeDirector(id);
+        filmCache.evictByDirector(id);
         return true;
     }
 
@@ -0,0 +1,265 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.dal.EventRepository;
+import ru.yandex.practicum.filmorate.exception.ServiceOverloadedException;
+import ru.yandex.practicum.filmorate.model.Event;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class EventJournal implements MeterBinder {
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final EventRepository eventRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushTimeoutMs;
+    private final BlockingQueue<Event> queue;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final Object drainLock = new Object();
+    private final Object writtenMonitor = new Object();
+    private long written;
+    private long processed;
+    private volatile long lastWriteLagMs;
+    private volatile long maxWriteLagMs;
+    private volatile boolean running;
+    private ExecutorService writer;
+
+    public EventJournal(EventRepository eventRepository,
+                        @Value("${filmorate.events.journal.enabled:true}") boolean enabled,
+                        @Value("${filmorate.events.journal.capacity:10000}") int capacity,
+                        @Value("${filmorate.events.journal.batch-size:500}") int batchSize,
+                        @Value("${filmorate.events.journal.flush-timeout-ms:1000}") long flushTimeoutMs) {
+        this.eventRepository = eventRepository;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushTimeoutMs = flushTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-journal-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        writer.execute(this::drain);
+        log.info("Включена асинхронная запись событий: ёмкость {}, пакет {}", queue.remainingCapacity(), batchSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(flushTimeoutMs * 10, TimeUnit.MILLISECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainRemaining();
+        log.info("Журнал событий остановлен. Записано: {}, ожиданий места в очереди: {}, потеряно: {}",
+                getStats().written(), blocked.get(), failed.get());
+    }
+
+    public void publish(Event event) {
+        publishAll(List.of(event));
+    }
+
+    public void publishAll(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (writer == null) {
+            eventRepository.saveAll(events);
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(events);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(events);
+            }
+        });
+    }
+
+    public void flush() {
+        if (!running) {
+            return;
+        }
+        long target = published.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushTimeoutMs);
+        synchronized (writtenMonitor) {
+            try {
+                while (processed < target) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new ServiceOverloadedException("События ещё не записаны, повторите запрос позже");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(writtenMonitor, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceOverloadedException("Ожидание записи событий прервано");
+            }
+        }
+    }
+
+    public Stats getStats() {
+        long writtenCount;
+        synchronized (writtenMonitor) {
+            writtenCount = written;
+        }
+        return new Stats(queue.size(), published.get(), writtenCount, failed.get(), blocked.get(),
+                lastWriteLagMs, maxWriteLagMs);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("events.journal.queue.depth", queue, BlockingQueue::size)
+                .register(registry);
+        FunctionCounter.builder("events.journal.published", published, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("events.journal.written", this, journal -> journal.getStats().written())
+                .register(registry);
+        FunctionCounter.builder("events.journal.blocked", blocked, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("events.journal.failed", failed, AtomicLong::get)
+                .register(registry);
+        Gauge.builder("events.journal.lag.last", this, journal -> journal.lastWriteLagMs)
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("events.journal.lag.max", this, journal -> journal.maxWriteLagMs)
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    private void enqueue(List<Event> events) {
+        boolean waited = false;
+        boolean interrupted = false;
+        for (Event event : events) {
+            published.incrementAndGet();
+            while (!queue.offer(event)) {
+                if (!running) {
+                    drainRemaining();
+                    continue;
+                }
+                if (!waited) {
+                    blocked.incrementAndGet();
+                    waited = true;
+                }
+                try {
+                    if (queue.offer(event, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (!running) {
+            drainRemaining();
+        }
+    }
+
+    private void drainRemaining() {
+        synchronized (drainLock) {
+            List<Event> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void drain() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                synchronized (drainLock) {
+                    Event first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    write(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<Event> batch) {
+        int saved = persist(batch);
+        long lag = Instant.now().toEpochMilli() - batch.get(0).getTimestamp();
+        lastWriteLagMs = lag;
+        maxWriteLagMs = Math.max(maxWriteLagMs, lag);
+        synchronized (writtenMonitor) {
+            written += saved;
+            processed += batch.size();
+            writtenMonitor.notifyAll();
+        }
+        log.debug("Записано {} событий, задержка {} мс, в очереди {}", batch.size(), lag, queue.size());
+    }
+
+    private int persist(List<Event> batch) {
+        try {
+            eventRepository.saveAll(batch);
+            return batch.size();
+        } catch (RuntimeException e) {
+            log.warn("Не удалось записать пакет из {} событий, записываем по одному", batch.size(), e);
+            int saved = 0;
+            for (Event event : batch) {
+                try {
+                    eventRepository.save(event);
+                    saved++;
+                } catch (RuntimeException eventError) {
+                    failed.incrementAndGet();
+                    log.error("Событие не записано: {}", event, eventError);
+                }
+            }
+            return saved;
+        }
+    }
+
+    public record Stats(long queueDepth, long published, long written, long failed, long blocked,
+                        long lastWriteLagMs, long maxWriteLagMs) {
+    }
+}
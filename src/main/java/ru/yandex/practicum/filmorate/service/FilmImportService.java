@@ -0,0 +1,131 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dal.FilmRepository;
+import ru.yandex.practicum.filmorate.dto.film.FilmImportErrorDto;
+import ru.yandex.practicum.filmorate.dto.film.FilmImportResultDto;
+import ru.yandex.practicum.filmorate.dto.film.NewFilmRequest;
+import ru.yandex.practicum.filmorate.exception.MpaNotFoundException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class FilmImportService {
+    private final FilmService filmService;
+    private final FilmRepository filmRepository;
+    private final ObjectReader filmReader;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public FilmImportService(FilmService filmService, FilmRepository filmRepository, ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager, ObjectProvider<Validator> validator,
+                             @Value("${filmorate.films.import.chunk-size:1000}") int chunkSize,
+                             @Value("${filmorate.films.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.filmService = filmService;
+        this.filmRepository = filmRepository;
+        this.filmReader = objectMapper.readerFor(NewFilmRequest.class);
+        this.validator = validator.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public FilmImportResultDto importFilms(BufferedReader reader) throws IOException {
+        long started = System.nanoTime();
+        FilmImportResultDto result = new FilmImportResultDto();
+        List<Film> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            result.setLines(result.getLines() + 1);
+            try {
+                NewFilmRequest request = filmReader.readValue(line);
+                validate(request);
+                chunk.add(filmService.prepareFilm(request));
+                chunkLines.add(lineNumber);
+            } catch (JsonProcessingException e) {
+                reject(result, lineNumber, "Некорректный JSON: " + e.getOriginalMessage());
+            } catch (ValidationException | NotFoundException | MpaNotFoundException e) {
+                reject(result, lineNumber, e.getMessage());
+            }
+            if (chunk.size() >= chunkSize) {
+                saveChunk(chunk, chunkLines, result);
+            }
+        }
+        saveChunk(chunk, chunkLines, result);
+
+        long elapsedNanos = System.nanoTime() - started;
+        result.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.setFilmsPerSecond(elapsedNanos > 0 ? result.getImported() * 1e9 / elapsedNanos : 0);
+        log.info("Импорт фильмов завершён: строк {}, загружено {}, отклонено {}, за {} мс ({} фильмов/с)",
+                result.getLines(), result.getImported(), result.getFailed(), result.getElapsedMs(),
+                Math.round(result.getFilmsPerSecond()));
+        return result;
+    }
+
+    private void saveChunk(List<Film> chunk, List<Long> chunkLines, FilmImportResultDto result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> filmRepository.createAll(chunk));
+            chunk.forEach(filmService::filmCreated);
+            result.setImported(result.getImported() + chunk.size());
+            log.debug("Сохранена пачка из {} фильмов", chunk.size());
+        } catch (RuntimeException e) {
+            log.error("Не удалось сохранить пачку из {} фильмов", chunk.size(), e);
+            for (Long chunkLine : chunkLines) {
+                reject(result, chunkLine, "Не удалось сохранить фильм: " + e.getMessage());
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private void validate(NewFilmRequest request) {
+        if (validator == null) {
+            return;
+        }
+        Set<ConstraintViolation<NewFilmRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private void reject(FilmImportResultDto result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new FilmImportErrorDto(line, message));
+        }
+    }
+}
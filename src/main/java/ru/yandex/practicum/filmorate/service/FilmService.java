@@ -3,10 +3,22 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.memory.FilmCache;
+import ru.yandex.practicum.filmorate.dal.memory.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.dal.memory.FilmSuggestIndex;
+import ru.yandex.practicum.filmorate.dal.memory.LikeMatrix;
+import ru.yandex.practicum.filmorate.dal.memory.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.dal.memory.ReferenceDataRegistry;
 import ru.yandex.practicum.filmorate.dto.DirectorDto;
 import ru.yandex.practicum.filmorate.dto.GenreDto;
+import ru.yandex.practicum.filmorate.dto.Page;
+import ru.yandex.practicum.filmorate.dto.PageCursor;
 import ru.yandex.practicum.filmorate.dto.film.FilmDto;
+import ru.yandex.practicum.filmorate.dto.film.FilmSuggestionDto;
+import ru.yandex.practicum.filmorate.dto.film.LikeOperationDto;
+import ru.yandex.practicum.filmorate.dto.film.LikeOperationResultDto;
 import ru.yandex.practicum.filmorate.dto.film.NewFilmRequest;
 import ru.yandex.practicum.filmorate.exception.MpaNotFoundException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
@@ -17,11 +29,14 @@ import ru.yandex.practicum.filmorate.mapper.GenreMapper;
 import ru.yandex.practicum.filmorate.model.*;
 import ru.yandex.practicum.filmorate.model.enums.DirectorQueryParams;
 import ru.yandex.practicum.filmorate.model.enums.EventType;
+import ru.yandex.practicum.filmorate.model.enums.LikeOperationStatus;
 import ru.yandex.practicum.filmorate.model.enums.OperationType;
+import ru.yandex.practicum.filmorate.model.enums.RecommendationMode;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,31 +44,54 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class FilmService {
     private static final LocalDate CINEMA_BIRTHDAY = LocalDate.of(1895, 12, 28);
+    private static final int MAX_LIKE_BATCH_SIZE = 10_000;
     private final FilmRepository filmRepository;
-    private final GenreRepository genreRepository;
-    private final MpaRepository mpaRepository;
+    private final FilmFullTextRepository filmFullTextRepository;
     private final UserRepository userRepository;
     private final LikeRepository likeRepository;
-    private final EventRepository eventRepository;
-    private final DirectorRepository directorRepository;
+    private final EventJournal eventJournal;
+    private final PopularityLeaderboard popularityLeaderboard;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final FilmCache filmCache;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final FilmSearchIndex filmSearchIndex;
+    private final FilmSuggestIndex filmSuggestIndex;
+    private final LikeMatrix likeMatrix;
 
     public FilmDto createFilm(NewFilmRequest newFilmRequest) {
-        Mpa mpa = mpaRepository.getMpaById(newFilmRequest.getMpa().getId(),
-                () -> new MpaNotFoundException("MPA с id " + newFilmRequest.getMpa().getId() + " не найден"));
-        List<Genre> genres = newFilmRequest.getGenres().stream()
-                .map(genreDto -> genreRepository.getGenreById(genreDto.getId())
+        Film film = prepareFilm(newFilmRequest);
+        filmRepository.create(film);
+        filmCreated(film);
+        FilmDto filmDto = FilmMapper.mapToFilmDto(film);
+        log.info("Отправлен ответ с FilmMapper.mapToFilmDto(film): {}", filmDto);
+        return filmDto;
+    }
+
+    public Film prepareFilm(NewFilmRequest newFilmRequest) {
+        if (newFilmRequest.getMpa() == null) {
+            throw new ValidationException("Рейтинг MPA должен быть указан");
+        }
+        Mpa mpa = referenceDataRegistry.getMpa(newFilmRequest.getMpa().getId())
+                .orElseThrow(() -> new MpaNotFoundException("MPA с id " + newFilmRequest.getMpa().getId() + " не найден"));
+        List<Genre> genres = Optional.ofNullable(newFilmRequest.getGenres()).orElseGet(List::of).stream()
+                .map(genreDto -> referenceDataRegistry.getGenre(genreDto.getId())
                         .orElseThrow(() -> new MpaNotFoundException("Жанр с id " + genreDto.getId() + " не найден")))
                 .collect(Collectors.toList());
-        List<Director> directors = newFilmRequest.getDirectors().stream()
-                .map(directorDto -> directorRepository.getById(directorDto.getId())
+        List<Director> directors = Optional.ofNullable(newFilmRequest.getDirectors()).orElseGet(List::of).stream()
+                .map(directorDto -> referenceDataRegistry.getDirector(directorDto.getId())
                         .orElseThrow(() -> new NotFoundException("Режиссер с id " + directorDto.getId() + " не найден")))
                 .collect(Collectors.toList());
         Film film = FilmMapper.mapToFilm(newFilmRequest, mpa, genres, directors);
         validateFilm(film);
-        filmRepository.create(film);
-        FilmDto filmDto = FilmMapper.mapToFilmDto(film);
-        log.info("Отправлен ответ с FilmMapper.mapToFilmDto(film): {}", filmDto);
-        return filmDto;
+        return film;
+    }
+
+    public void filmCreated(Film film) {
+        popularityLeaderboard.put(film.getId(), film.getReleaseDate(),
+                film.getGenres().stream().map(Genre::getId).toList());
+        List<Long> directorIds = film.getDirectors().stream().map(Director::getId).toList();
+        filmSearchIndex.putFilm(film.getId(), film.getName(), directorIds);
+        filmSuggestIndex.putFilm(film.getId(), film.getName(), directorIds);
     }
 
     public void deleteFilm(Long id) {
@@ -61,22 +99,37 @@ public class FilmService {
         if (rowsAffected == 0) {
             throw new NotFoundException("Фильм с id " + id + " не найден");
         }
+        filmSearchIndex.removeFilm(id);
+        filmSuggestIndex.removeFilm(id);
         log.info("Фильм с id {} удален", id);
     }
 
     public List<Film> getAllFilms() {
         final List<Film> films = filmRepository.findAll();
-        genreRepository.load(films);
-        directorRepository.load(films);
-        log.info("Найдены фильмы: {}", films);
+        log.info("Найдены фильмы. Количество: {}", films.size());
         return films;
     }
 
+    public void streamAllFilms(Consumer<Film> consumer) {
+        filmRepository.streamAll(consumer);
+    }
+
+    public Page<Film> getFilmsPage(String cursor, int limit) {
+        PageCursor.checkLimit(limit);
+        long afterId = cursor != null ? PageCursor.decode(cursor).getId() : Long.MIN_VALUE;
+        List<Film> films = filmRepository.findPage(afterId, limit);
+        String nextCursor = null;
+        if (films.size() == limit) {
+            long lastId = films.get(films.size() - 1).getId();
+            nextCursor = new PageCursor(lastId, lastId).encode();
+        }
+        log.info("Получена страница фильмов. Количество: {}", films.size());
+        return new Page<>(films, nextCursor);
+    }
+
     public FilmDto getFilmById(Long id) {
-        Film film = filmRepository.findById(id)
+        Film film = filmCache.get(id, filmRepository::findById)
                 .orElseThrow(() -> new NotFoundException("Фильм не найден"));
-        genreRepository.load(Collections.singletonList(film));
-        directorRepository.load(Collections.singletonList(film));
         FilmDto filmDto = FilmMapper.mapToFilmDto(film);
         log.info("Отправлен ответ с FilmMapper.mapToFilmDto(film): {}", filmDto);
         return filmDto;
@@ -87,20 +140,17 @@ public class FilmService {
             return Collections.emptyList();
         }
         final List<Film> films = filmRepository.findByIds(ids);
-        genreRepository.load(films);
-        directorRepository.load(films);
-        log.info("Найдены фильмы по заданному списку id: {}", films);
+        log.info("Найдены фильмы по заданному списку id. Запрошено: {}, найдено: {}", ids.size(), films.size());
         return films;
     }
 
     public NewFilmRequest update(NewFilmRequest newFilmRequest) {
-        Film film = filmRepository.findById(newFilmRequest.getId())
+        filmRepository.findById(newFilmRequest.getId())
                 .orElseThrow(() -> new NotFoundException("Фильм не найден"));
-        film.setRate(newFilmRequest.getRate());
 
         Set<GenreDto> uniqueGenres = newFilmRequest.getGenres() != null ?
                 newFilmRequest.getGenres().stream()
-                        .map(genreDto -> genreRepository.getGenreById(genreDto.getId())
+                        .map(genreDto -> referenceDataRegistry.getGenre(genreDto.getId())
                                 .orElseThrow(() -> new MpaNotFoundException("Жанр с id " + genreDto.getId() + " не найден")))
                         .map(GenreMapper::toGenreDto)
                         .collect(Collectors.toSet()) :
@@ -109,7 +159,7 @@ public class FilmService {
 
         Set<DirectorDto> uniqueDirectors = newFilmRequest.getDirectors() != null ?
                 newFilmRequest.getDirectors().stream()
-                        .map(directorDto -> directorRepository.getById(directorDto.getId())
+                        .map(directorDto -> referenceDataRegistry.getDirector(directorDto.getId())
                                 .orElseThrow(() -> new NotFoundException("Режиссер с id " + directorDto.getId() + " не найден")))
                         .map(DirectorMapper::mapToDirectorDto)
                         .collect(Collectors.toSet()) :
@@ -117,31 +167,51 @@ public class FilmService {
         newFilmRequest.setDirectors(new ArrayList<>(uniqueDirectors));
 
         filmRepository.update(newFilmRequest);
+        filmCache.evict(newFilmRequest.getId());
+        popularityLeaderboard.put(newFilmRequest.getId(), newFilmRequest.getReleaseDate(),
+                uniqueGenres.stream().map(GenreDto::getId).toList());
+        List<Long> directorIds = uniqueDirectors.stream().map(DirectorDto::getId).toList();
+        filmSearchIndex.putFilm(newFilmRequest.getId(), newFilmRequest.getName(), directorIds);
+        filmSuggestIndex.putFilm(newFilmRequest.getId(), newFilmRequest.getName(), directorIds);
         log.info("Отправлен ответ : {}", newFilmRequest);
         return newFilmRequest;
     }
 
     public List<Film> getPopularFilms(Integer count, Optional<Long> genreId, Optional<Integer> year) {
-        List<Film> popularFilms;
-        if (genreId.isPresent() && year.isPresent()) {
-            popularFilms = filmRepository.getPopularFilmsByGenreAndYear(count, genreId.get(), year.get());
-        } else if (genreId.isPresent()) {
-            popularFilms = filmRepository.getPopularFilmsByGenre(count, genreId.get());
-        } else if (year.isPresent()) {
-            popularFilms = filmRepository.getPopularFilmsByYear(count, year.get());
-        } else {
-            popularFilms = filmRepository.getPopularFilms(count);
+        List<Long> popularIds = popularityLeaderboard.getTop(count, genreId.orElse(null), year.orElse(null));
+        if (popularIds.isEmpty()) {
+            return Collections.emptyList();
         }
-        genreRepository.load(popularFilms);
-        directorRepository.load(popularFilms);
+        List<Film> popularFilms = filmRepository.findByIds(popularIds);
         log.info("Получен список популярных фильмов. Количество: {}", popularFilms.size());
         return popularFilms;
     }
 
     public List<Film> getCommonFilms(Long userId, Long friendId) {
-        List<Film> commonFilms = filmRepository.getCommonFilms(userId, friendId);
-        genreRepository.load(commonFilms);
-        directorRepository.load(commonFilms);
+        return getCommonFilms(List.of(userId, friendId), null);
+    }
+
+    public List<Film> getCommonFilms(List<Long> userIds, Integer minUsers) {
+        if (userIds.isEmpty()) {
+            throw new ValidationException("Список пользователей не может быть пустым");
+        }
+        int distinctUsers = (int) userIds.stream().distinct().count();
+        int required = minUsers != null ? minUsers : distinctUsers;
+        if (required < 1 || required > distinctUsers) {
+            throw new ValidationException("Минимальное количество пользователей должно быть от 1 до " + distinctUsers);
+        }
+        List<Long> filmIds = likeMatrix.isSupported()
+                ? likeMatrix.findCommonFilms(userIds, required)
+                : likeRepository.getCommonFilmsIds(userIds, required);
+        Map<Long, Long> likes = new HashMap<>();
+        for (Long filmId : filmIds) {
+            likes.put(filmId, popularityLeaderboard.getLikes(filmId));
+        }
+        List<Long> ranked = filmIds.stream()
+                .sorted(Comparator.<Long, Long>comparing(likes::get, Comparator.reverseOrder())
+                        .thenComparing(Comparator.naturalOrder()))
+                .toList();
+        List<Film> commonFilms = getFilmsByIds(ranked);
         log.info("Получен список общих фильмов. Количество: {}", commonFilms.size());
         return commonFilms;
     }
@@ -152,8 +222,6 @@ public class FilmService {
             if (directorsFilms.isEmpty()) {
                 throw new NotFoundException("Фильмы по режиссёру не найдены");
             }
-            genreRepository.load(directorsFilms);
-            directorRepository.load(directorsFilms);
             log.info("Получен список фильмов режиссера {}", directorId);
             return directorsFilms;
         } catch (IllegalArgumentException e) {
@@ -161,55 +229,170 @@ public class FilmService {
         }
     }
 
-    public List<Film> searchFilmBy(String query, String by) {
-        List<Film> searchFilms = filmRepository.searchFilmBy(query, by);
-        genreRepository.load(searchFilms);
-        directorRepository.load(searchFilms);
+    public List<Film> searchFilmBy(String query, String by, boolean fuzzy) {
+        Set<String> fields = Arrays.stream(by.split(","))
+                .map(String::trim)
+                .collect(Collectors.toSet());
+        boolean byTitle = fields.contains("title");
+        boolean byDirector = fields.contains("director");
+        if (!byTitle && !byDirector) {
+            byTitle = true;
+            byDirector = true;
+        }
+        List<Long> filmIds;
+        if (fuzzy) {
+            filmIds = filmSearchIndex.searchFuzzy(query, byTitle, byDirector);
+        } else if (filmFullTextRepository.isEnabled()) {
+            filmIds = filmFullTextRepository.search(query, byTitle, byDirector);
+        } else {
+            filmIds = filmSearchIndex.search(query, byTitle, byDirector);
+        }
+        List<Film> searchFilms = filmRepository.findByIds(filmIds);
+        log.info("По запросу \"{}\" найдено фильмов: {}", query, searchFilms.size());
         return searchFilms;
     }
 
+    public List<FilmSuggestionDto> suggestFilms(String prefix, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Количество подсказок должно быть положительным");
+        }
+        return filmSuggestIndex.suggest(prefix, limit).entrySet().stream()
+                .map(suggestion -> new FilmSuggestionDto(suggestion.getKey(), suggestion.getValue()))
+                .toList();
+    }
+
     public void addLike(Long filmId, Long userId) {
         checkFilmAndUserExist(filmId, userId);
-        likeRepository.addLike(filmId, userId);
-        eventRepository.save(new Event(Instant.now().toEpochMilli(), userId,
-                EventType.LIKE, OperationType.ADD, filmId));
+        Event event = new Event(Instant.now().toEpochMilli(), userId, EventType.LIKE, OperationType.ADD, filmId);
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.enqueue(filmId, userId, OperationType.ADD, event);
+        } else {
+            likeRepository.addLike(filmId, userId);
+            eventJournal.publish(event);
+        }
         log.info("Пользователь {} поставил лайк фильму {}", userId, filmId);
     }
 
     public void removeLike(Long filmId, Long userId) {
         checkFilmAndUserExist(filmId, userId);
-        likeRepository.removeLike(filmId, userId);
-        eventRepository.save(new Event(Instant.now().toEpochMilli(), userId,
-                EventType.LIKE, OperationType.REMOVE, filmId));
+        Event event = new Event(Instant.now().toEpochMilli(), userId, EventType.LIKE, OperationType.REMOVE, filmId);
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.enqueue(filmId, userId, OperationType.REMOVE, event);
+        } else {
+            likeRepository.removeLike(filmId, userId);
+            eventJournal.publish(event);
+        }
         log.info("Пользователь {} удалил лайк у фильма {}", userId, filmId);
     }
 
-    public List<Film> getRecommendations(Long userId) {
-        return getFilmsByIds(likeRepository.getRecommendedFilmsIds(userId));
+    @Transactional
+    public List<LikeOperationResultDto> applyLikes(List<LikeOperationDto> requests) {
+        if (requests.size() > MAX_LIKE_BATCH_SIZE) {
+            throw new ValidationException("Пакет не может содержать более " + MAX_LIKE_BATCH_SIZE + " операций");
+        }
+        Set<Long> existingFilms = filmRepository.findExistingIds(requests.stream()
+                .map(LikeOperationDto::getFilmId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        Set<Long> existingUsers = userRepository.findExistingIds(requests.stream()
+                .map(LikeOperationDto::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        List<LikeOperationResultDto> results = new ArrayList<>(requests.size());
+        Map<List<Long>, Integer> lastIndexByLike = new HashMap<>();
+        List<Event> events = new ArrayList<>();
+        long timestamp = Instant.now().toEpochMilli();
+        for (LikeOperationDto request : requests) {
+            LikeOperationResultDto result = new LikeOperationResultDto(request.getFilmId(), request.getUserId(),
+                    request.getOp(), LikeOperationStatus.UNCHANGED, null);
+            results.add(result);
+            if (request.getFilmId() == null || request.getUserId() == null
+                    || (request.getOp() != OperationType.ADD && request.getOp() != OperationType.REMOVE)) {
+                result.setStatus(LikeOperationStatus.INVALID);
+                result.setMessage("Необходимо указать filmId, userId и op (ADD или REMOVE)");
+            } else if (!existingFilms.contains(request.getFilmId())) {
+                result.setStatus(LikeOperationStatus.NOT_FOUND);
+                result.setMessage("Фильм с id " + request.getFilmId() + " не найден");
+            } else if (!existingUsers.contains(request.getUserId())) {
+                result.setStatus(LikeOperationStatus.NOT_FOUND);
+                result.setMessage("Пользователь с id " + request.getUserId() + " не найден");
+            } else {
+                Integer previous = lastIndexByLike.put(List.of(request.getFilmId(), request.getUserId()),
+                        results.size() - 1);
+                if (previous != null) {
+                    results.get(previous).setStatus(LikeOperationStatus.SUPERSEDED);
+                }
+                events.add(new Event(timestamp, request.getUserId(), EventType.LIKE, request.getOp(),
+                        request.getFilmId()));
+            }
+        }
+
+        List<Integer> indexes = lastIndexByLike.values().stream().sorted().toList();
+        List<LikeOperation> operations = indexes.stream()
+                .map(results::get)
+                .map(result -> new LikeOperation(result.getFilmId(), result.getUserId(), result.getOp()))
+                .toList();
+        boolean[] changed = likeRepository.applyLikes(operations);
+        for (int i = 0; i < changed.length; i++) {
+            if (changed[i]) {
+                results.get(indexes.get(i)).setStatus(LikeOperationStatus.APPLIED);
+            }
+        }
+        eventJournal.publishAll(events);
+        log.info("Обработан пакет лайков. Операций: {}, изменено: {}", requests.size(),
+                results.stream().filter(result -> result.getStatus() == LikeOperationStatus.APPLIED).count());
+        return results;
+    }
+
+    public List<Film> getRecommendations(Long userId, RecommendationMode mode) {
+        return getFilmsByIds(getRecommendedFilmIds(userId, mode));
+    }
+
+    public List<Long> getRecommendedFilmIds(Long userId, RecommendationMode mode) {
+        if (!likeMatrix.isSupported()) {
+            return likeRepository.getRecommendedFilmsIds(userId);
+        } else if (mode == RecommendationMode.item) {
+            return likeMatrix.recommendByItems(userId);
+        }
+        return likeMatrix.recommend(userId);
+    }
+
+    public List<Film> getSimilarFilms(Long filmId, int count) {
+        if (count <= 0) {
+            throw new ValidationException("Количество фильмов должно быть положительным");
+        }
+        filmCache.get(filmId, filmRepository::findById)
+                .orElseThrow(() -> new NotFoundException("Фильм с id " + filmId + " не найден"));
+        List<Film> films = getFilmsByIds(likeMatrix.findSimilar(filmId, count));
+        log.info("Найдено {} фильмов, похожих на фильм {}", films.size(), filmId);
+        return films;
     }
 
     private void checkFilmAndUserExist(Long filmId, Long userId) {
-        filmRepository.findById(filmId)
+        filmCache.get(filmId, filmRepository::findById)
                 .orElseThrow(() -> new NotFoundException("Фильм с id " + filmId + " не найден"));
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
     }
 
     public void validateFilm(Film film) {
-        if (film.getName().isBlank()) {
-            log.error("Ошибка валидации: название фильма не может быть пустым");
+        if (film.getName() == null || film.getName().isBlank()) {
             throw new ValidationException("Название фильма не может быть пустым");
         }
-        if (film.getDescription().length() > 200) {
-            log.error("Ошибка валидации: описание фильма не может превышать 200 символов.");
+        if (film.getDescription() != null && film.getDescription().length() > 200) {
             throw new ValidationException("Описание фильма не может превышать 200 символов.");
         }
+        if (film.getReleaseDate() == null) {
+            throw new ValidationException("Дата выпуска фильма должна быть указана");
+        }
         if (film.getReleaseDate().isBefore(CINEMA_BIRTHDAY)) {
-            log.error("Ошибка валидации: дата выпуска фильма не может быть ранее 28 декабря 1895 г.");
             throw new ValidationException("Дата выпуска не может быть ранее 28 декабря 1895 г.");
         }
-        if (film.getDuration() <= 0) {
-            log.error("Ошибка валидации: продолжительность фильма должна быть отрицательной.");
+        if (film.getReleaseDate().isAfter(LocalDate.now())) {
+            throw new ValidationException("Дата релиза не может быть в будущем");
+        }
+        if (film.getDuration() == null || film.getDuration() <= 0) {
             throw new ValidationException("Продолжительность фильма должна быть отрицательной.");
         }
     }
@@ -3,7 +3,7 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import ru.yandex.practicum.filmorate.dal.GenreRepository;
+import ru.yandex.practicum.filmorate.dal.memory.ReferenceDataRegistry;
 import ru.yandex.practicum.filmorate.dto.GenreDto;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.GenreMapper;
@@ -16,10 +16,10 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class GenreService {
-    private final GenreRepository genreRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     public List<GenreDto> getAllGenres() {
-        List<Genre> genres = genreRepository.findAll();
+        List<Genre> genres = referenceDataRegistry.getGenres();
         log.info("Получены жанры: {}", genres);
         return genres.stream()
                 .map(GenreMapper::toGenreDto)
@@ -27,7 +27,7 @@ public class GenreService {
     }
 
     public GenreDto getGenreById(Long id) {
-        Genre genre = genreRepository.getGenreById(id)
+        Genre genre = referenceDataRegistry.getGenre(id)
                 .orElseThrow(() -> new NotFoundException("Жанр с id " + id + " не найден"));
         GenreDto genreDto = GenreMapper.toGenreDto(genre);
         log.info("ОТправлен ответ: {}", genreDto);
@@ -0,0 +1,214 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.LikeRepository;
+import ru.yandex.practicum.filmorate.exception.ServiceOverloadedException;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
+import ru.yandex.practicum.filmorate.model.enums.OperationType;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class LikeWriteBuffer {
+    private final LikeRepository likeRepository;
+    private final EventJournal eventJournal;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final boolean syncAck;
+    private final long offerTimeoutMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private Map<LikeKey, PendingLike> pendingLikes = new LinkedHashMap<>();
+    private List<Event> pendingEvents = new ArrayList<>();
+    private ScheduledExecutorService flusher;
+    private boolean stopped;
+
+    public LikeWriteBuffer(LikeRepository likeRepository, EventJournal eventJournal,
+                           @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                           @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity,
+                           @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+                           @Value("${filmorate.likes.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+                           @Value("${filmorate.likes.write-behind.sync-ack:false}") boolean syncAck,
+                           @Value("${filmorate.likes.write-behind.offer-timeout-ms:1000}") long offerTimeoutMs) {
+        this.likeRepository = likeRepository;
+        this.eventJournal = eventJournal;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.syncAck = syncAck;
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Включена отложенная запись лайков: ёмкость {}, пакет {}, интервал {} мс, синхронное подтверждение {}",
+                capacity, batchSize, flushIntervalMs, syncAck);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            stopped = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(flushIntervalMs * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void enqueue(long filmId, long userId, OperationType operation, Event event) {
+        CompletableFuture<Void> flushed = null;
+        boolean flushNow = false;
+        lock.lock();
+        try {
+            awaitCapacity();
+            if (!stopped) {
+                LikeKey key = new LikeKey(filmId, userId);
+                PendingLike previous = pendingLikes.get(key);
+                flushed = previous != null ? previous.written() : new CompletableFuture<>();
+                pendingLikes.put(key, new PendingLike(operation, flushed));
+                pendingEvents.add(event);
+                flushNow = pendingEvents.size() >= batchSize;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Запись лайка прервана");
+        } finally {
+            lock.unlock();
+        }
+        if (flushed == null) {
+            likeRepository.applyLikes(List.of(new LikeOperation(filmId, userId, operation)));
+            eventJournal.publish(event);
+            return;
+        }
+        if (flushNow) {
+            try {
+                flusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flush();
+            }
+        }
+        if (syncAck) {
+            try {
+                flushed.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+    }
+
+    private void awaitCapacity() throws InterruptedException {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        while (!stopped && pendingEvents.size() >= capacity) {
+            if (remainingNanos <= 0) {
+                throw new ServiceOverloadedException("Буфер лайков переполнен, повторите запрос позже");
+            }
+            remainingNanos = notFull.awaitNanos(remainingNanos);
+        }
+    }
+
+    void flush() {
+        Map<LikeKey, PendingLike> likes;
+        List<Event> events;
+        lock.lock();
+        try {
+            if (pendingEvents.isEmpty()) {
+                return;
+            }
+            likes = pendingLikes;
+            events = pendingEvents;
+            pendingLikes = new LinkedHashMap<>();
+            pendingEvents = new ArrayList<>();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        List<LikeOperation> operations = likes.entrySet().stream()
+                .map(like -> new LikeOperation(like.getKey().filmId(), like.getKey().userId(),
+                        like.getValue().operation()))
+                .toList();
+        Map<LikeKey, RuntimeException> failed = apply(operations);
+        try {
+            eventJournal.publishAll(events.stream()
+                    .filter(event -> !failed.containsKey(new LikeKey(event.getEntityId(), event.getUserId())))
+                    .toList());
+        } catch (RuntimeException e) {
+            log.error("Не удалось передать в журнал {} событий записанных лайков", events.size(), e);
+        }
+        likes.forEach((key, like) -> {
+            RuntimeException error = failed.get(key);
+            if (error != null) {
+                like.written().completeExceptionally(error);
+            } else {
+                like.written().complete(null);
+            }
+        });
+    }
+
+    private Map<LikeKey, RuntimeException> apply(List<LikeOperation> operations) {
+        try {
+            likeRepository.applyLikes(operations);
+            log.debug("Записано {} лайков", operations.size());
+            return Collections.emptyMap();
+        } catch (RuntimeException e) {
+            log.warn("Не удалось записать пакет из {} лайков, записываем по одному", operations.size(), e);
+            return applyOneByOne(operations);
+        }
+    }
+
+    private Map<LikeKey, RuntimeException> applyOneByOne(List<LikeOperation> operations) {
+        Map<LikeKey, RuntimeException> failed = new HashMap<>();
+        for (LikeOperation operation : operations) {
+            try {
+                likeRepository.applyLikes(List.of(operation));
+            } catch (RuntimeException e) {
+                log.warn("Не удалось записать лайк пользователя {} фильму {}: {}",
+                        operation.getUserId(), operation.getFilmId(), e.getMessage());
+                failed.put(new LikeKey(operation.getFilmId(), operation.getUserId()), e);
+            }
+        }
+        return failed;
+    }
+
+    private record LikeKey(long filmId, long userId) {
+    }
+
+    private record PendingLike(OperationType operation, CompletableFuture<Void> written) {
+    }
+}
@@ -3,7 +3,7 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import ru.yandex.practicum.filmorate.dal.MpaRepository;
+import ru.yandex.practicum.filmorate.dal.memory.ReferenceDataRegistry;
 import ru.yandex.practicum.filmorate.dto.MpaDto;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.mapper.MpaMapper;
@@ -16,10 +16,10 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class MpaService {
-    private final MpaRepository mpaRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     public List<MpaDto> getAllMpa() {
-        List<Mpa> mpaList = mpaRepository.findAll();
+        List<Mpa> mpaList = referenceDataRegistry.getMpas();
         log.info("Получен список всех рейтингов MPA. Количество: {}", mpaList.size());
         return mpaList.stream()
                 .map(MpaMapper::mapToMpaDto)
@@ -27,7 +27,8 @@ public class MpaService {
     }
 
     public MpaDto getMpaById(Long id) {
-        Mpa mpa = mpaRepository.getMpaById(id, () -> new NotFoundException("MPA с id " + id + " не найден"));
+        Mpa mpa = referenceDataRegistry.getMpa(id)
+                .orElseThrow(() -> new NotFoundException("MPA с id " + id + " не найден"));
         MpaDto mpaDto = MpaMapper.mapToMpaDto(mpa);
         log.info("Отправлен ответ MpaMapper.mapToMpaDto(mpa): {}", mpaDto);
         return mpaDto;
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.dal.UserRepository;
+import ru.yandex.practicum.filmorate.dto.user.RecommendationBatchRequest;
+import ru.yandex.practicum.filmorate.dto.user.UserRecommendationsDto;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+public class RecommendationBatchService {
+    private final FilmService filmService;
+    private final UserRepository userRepository;
+    private final ExecutorService workers;
+    private final int chunkSize;
+    private final int maxUsers;
+
+    public RecommendationBatchService(FilmService filmService, UserRepository userRepository,
+                                      @Value("${filmorate.recommendations.batch.parallelism:4}") int parallelism,
+                                      @Value("${filmorate.recommendations.batch.chunk-size:256}") int chunkSize,
+                                      @Value("${filmorate.recommendations.batch.max-users:100000}") int maxUsers) {
+        this.filmService = filmService;
+        this.userRepository = userRepository;
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-batch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.chunkSize = chunkSize;
+        this.maxUsers = maxUsers;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public List<Long> resolveUserIds(RecommendationBatchRequest request) {
+        if (request.isAll()) {
+            return userRepository.findAllIds();
+        }
+        if (request.getUserIds() == null || request.getUserIds().isEmpty()) {
+            throw new ValidationException("Список пользователей не может быть пустым");
+        }
+        if (request.getUserIds().size() > maxUsers) {
+            throw new ValidationException("Количество пользователей в пакете не может превышать " + maxUsers);
+        }
+        return request.getUserIds();
+    }
+
+    public void streamRecommendations(List<Long> userIds, RecommendationBatchRequest request,
+                                      Consumer<UserRecommendationsDto> consumer) {
+        for (int from = 0; from < userIds.size(); from += chunkSize) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + chunkSize, userIds.size()));
+            Set<Long> existing = request.isAll() ? Set.copyOf(chunk) : userRepository.findExistingIds(chunk);
+            List<CompletableFuture<UserRecommendationsDto>> results = new ArrayList<>(chunk.size());
+            for (Long userId : chunk) {
+                if (!existing.contains(userId)) {
+                    results.add(CompletableFuture.completedFuture(
+                            new UserRecommendationsDto(userId, List.of(), "Пользователь с id " + userId + " не найден")));
+                    continue;
+                }
+                results.add(CompletableFuture.supplyAsync(() -> new UserRecommendationsDto(userId,
+                        filmService.getRecommendedFilmIds(userId, request.getMode()), null), workers));
+            }
+            results.forEach(result -> consumer.accept(result.join()));
+        }
+        log.info("Рассчитаны рекомендации для {} пользователей", userIds.size());
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dal.memory.LikeMatrix;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class RecommendationRefresher {
+    private final LikeMatrix likeMatrix;
+    private final boolean enabled;
+    private final long intervalMs;
+    private final int topUsers;
+    private ScheduledExecutorService refresher;
+
+    public RecommendationRefresher(LikeMatrix likeMatrix,
+                                   @Value("${filmorate.recommendations.refresh.enabled:true}") boolean enabled,
+                                   @Value("${filmorate.recommendations.refresh.interval-ms:60000}") long intervalMs,
+                                   @Value("${filmorate.recommendations.refresh.top-users:1000}") int topUsers) {
+        this.likeMatrix = likeMatrix;
+        this.enabled = enabled;
+        this.intervalMs = intervalMs;
+        this.topUsers = topUsers;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    void refresh() {
+        try {
+            if (!likeMatrix.isSupported()) {
+                return;
+            }
+            List<Long> userIds = likeMatrix.getMostActiveUsers(topUsers);
+            userIds.forEach(likeMatrix::recommend);
+            LikeMatrix.CacheStats stats = likeMatrix.getRecommendationCacheStats();
+            log.debug("Обновлены рекомендации для {} активных пользователей. Попаданий в кэш: {}, промахов: {}, " +
+                    "сбросов: {}, вытеснений: {}, записей: {}", userIds.size(), stats.hits(), stats.misses(),
+                    stats.invalidations(), stats.evictions(), stats.size());
+        } catch (RuntimeException e) {
+            log.error("Не удалось обновить рекомендации", e);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dto.Page;
+import ru.yandex.practicum.filmorate.dto.PageCursor;
 import ru.yandex.practicum.filmorate.dto.reviews.NewReviewRequestDto;
 import ru.yandex.practicum.filmorate.dto.reviews.ReviewResponseDto;
 import ru.yandex.practicum.filmorate.dto.reviews.UpdateReviewRequestDto;
@@ -28,7 +30,7 @@ public class ReviewService {
     private final UserRepository userRepository;
     private final FilmRepository filmRepository;
     private final UsefulRepository usefulRepository;
-    private final EventRepository eventRepository;
+    private final EventJournal eventJournal;
 
     public ReviewResponseDto addNewReview(NewReviewRequestDto request) {
         checkUserId(request.getUserId());
@@ -40,7 +42,7 @@ public class ReviewService {
         review = reviewRepository.addNewReview(review);
         Event event = new Event(Instant.now().toEpochMilli(), request.getUserId(), EventType.REVIEW,
                 OperationType.ADD, review.getId());
-        eventRepository.save(event);
+        eventJournal.publish(event);
         return ReviewMapper.mapToReviewDto(review);
     }
 
@@ -54,7 +56,7 @@ public class ReviewService {
         review = reviewRepository.updateReview(review);
         Event event = new Event(Instant.now().toEpochMilli(), review.getUserId(), EventType.REVIEW,
                 OperationType.UPDATE, review.getId());
-        eventRepository.save(event);
+        eventJournal.publish(event);
         return ReviewMapper.mapToReviewDto(review);
     }
 
@@ -67,7 +69,7 @@ public class ReviewService {
         } else {
             Event event = new Event(Instant.now().toEpochMilli(), review.getUserId(), EventType.REVIEW,
                     OperationType.REMOVE, id);
-            eventRepository.save(event);
+            eventJournal.publish(event);
         }
     }
 
@@ -78,20 +80,29 @@ public class ReviewService {
                         new NotFoundException("Отзыв не найден с id: " + id));
     }
 
-    public List<ReviewResponseDto> getReviews(Long id, int count) {
-        if (id == 0) {
-            return reviewRepository.getReviewsWithLimit(count).stream()
-                    .map(ReviewMapper::mapToReviewDto)
-                    .collect(Collectors.toList());
+    public Page<ReviewResponseDto> getReviews(Long id, int count, String cursor) {
+        List<Review> reviews;
+        if (cursor != null) {
+            PageCursor.checkLimit(count);
+            PageCursor after = PageCursor.decode(cursor);
+            reviews = id == 0
+                    ? reviewRepository.getReviewsAfter(after.getSortKey(), after.getId(), count)
+                    : reviewRepository.getReviewsAfter(id, after.getSortKey(), after.getId(), count);
+        } else if (id == 0) {
+            reviews = reviewRepository.getReviewsWithLimit(count);
         } else if (count == 0) {
-            return reviewRepository.getReviewsByFilmId(id).stream()
-                    .map(ReviewMapper::mapToReviewDto)
-                    .collect(Collectors.toList());
+            reviews = reviewRepository.getReviewsByFilmId(id);
         } else {
-            return reviewRepository.getReviews(id, count).stream()
-                    .map(ReviewMapper::mapToReviewDto)
-                    .collect(Collectors.toList());
+            reviews = reviewRepository.getReviews(id, count);
         }
+        String nextCursor = null;
+        if (count > 0 && reviews.size() == count) {
+            Review last = reviews.get(reviews.size() - 1);
+            nextCursor = new PageCursor(last.getCount(), last.getId()).encode();
+        }
+        return new Page<>(reviews.stream()
+                .map(ReviewMapper::mapToReviewDto)
+                .collect(Collectors.toList()), nextCursor);
     }
 
     public ReviewResponseDto addLike(Long id, Long userId) {
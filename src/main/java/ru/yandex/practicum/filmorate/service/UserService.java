@@ -6,6 +6,8 @@ import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dal.EventRepository;
 import ru.yandex.practicum.filmorate.dal.FriendsRepository;
 import ru.yandex.practicum.filmorate.dal.UserRepository;
+import ru.yandex.practicum.filmorate.dto.Page;
+import ru.yandex.practicum.filmorate.dto.PageCursor;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Event;
@@ -16,6 +18,7 @@ import ru.yandex.practicum.filmorate.model.enums.OperationType;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -23,13 +26,15 @@ public class UserService {
     private final UserRepository userRepository;
     private final FriendsRepository friendsRepository;
     private final EventRepository eventRepository;
+    private final EventJournal eventJournal;
 
     @Autowired
     public UserService(UserRepository userRepository, FriendsRepository friendsRepository,
-                       EventRepository eventRepository) {
+                       EventRepository eventRepository, EventJournal eventJournal) {
         this.userRepository = userRepository;
         this.friendsRepository = friendsRepository;
         this.eventRepository = eventRepository;
+        this.eventJournal = eventJournal;
     }
 
     public User createUser(User user) {
@@ -68,48 +73,105 @@ public class UserService {
     }
 
     public void addFriend(Long userId, Long friendId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
-        userRepository.findById(friendId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id " + friendId + " не найден"));
+        checkUsersExist(userId, friendId);
         friendsRepository.addFriend(userId, friendId);
-        eventRepository.save(new Event(Instant.now().toEpochMilli(), userId,
+        eventJournal.publish(new Event(Instant.now().toEpochMilli(), userId,
                 EventType.FRIEND, OperationType.ADD, friendId));
         log.info("Пользователь {} добавил в друзья пользователя {}", userId, friendId);
     }
 
     public void removeFriend(Long userId, Long friendId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
-        userRepository.findById(friendId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id " + friendId + " не найден"));
+        checkUsersExist(userId, friendId);
         friendsRepository.deleteFriend(userId, friendId);
-        eventRepository.save(new Event(Instant.now().toEpochMilli(), userId,
+        eventJournal.publish(new Event(Instant.now().toEpochMilli(), userId,
                 EventType.FRIEND, OperationType.REMOVE, friendId));
         log.info("Пользователь {} удалил из друзей пользователя {}", userId, friendId);
     }
 
     public List<User> getFriends(Long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
-        List<User> friends = friendsRepository.getFriends(userId);
+        long[] friendIds = friendsRepository.getFriendIds(userId);
+        if (friendIds.length == 0) {
+            getUserById(userId);
+        }
+        List<User> friends = userRepository.findByIds(friendIds);
         log.info("Получен список друзей пользователя {}. Количество: {}", userId, friends.size());
         return friends;
     }
 
     public List<User> getCommonFriends(Long userId, Long otherUserId) {
-        List<User> commonFriends = friendsRepository.getCommonFriends(userId, otherUserId);
+        List<User> commonFriends = userRepository.findByIds(friendsRepository.getCommonFriendIds(userId, otherUserId));
         log.info("Получен список общих друзей пользователей {} и {}. Количество: {}",
                 userId, otherUserId, commonFriends.size());
         return commonFriends;
     }
 
+    public Page<User> getFriends(Long userId, String cursor, int limit) {
+        PageCursor.checkLimit(limit);
+        long afterId = cursor != null ? PageCursor.decode(cursor).getId() : Long.MIN_VALUE;
+        long[] friendIds = friendsRepository.getFriendIds(userId, afterId, limit);
+        if (friendIds.length == 0) {
+            getUserById(userId);
+        }
+        List<User> friends = userRepository.findByIds(friendIds);
+        long lastId = friendIds.length > 0 ? friendIds[friendIds.length - 1] : 0;
+        String nextCursor = friendIds.length == limit ? new PageCursor(lastId, lastId).encode() : null;
+        log.info("Получена страница друзей пользователя {}. Количество: {}", userId, friends.size());
+        return new Page<>(friends, nextCursor);
+    }
+
+    public List<User> getFriendSuggestions(Long userId, int count) {
+        if (count <= 0) {
+            throw new ValidationException("Количество рекомендаций должно быть положительным");
+        }
+        getUserById(userId);
+        List<User> suggestions = userRepository.findByIds(friendsRepository.getSuggestedFriendIds(userId, count));
+        log.info("Получен список рекомендуемых друзей пользователя {}. Количество: {}", userId, suggestions.size());
+        return suggestions;
+    }
+
+    public List<User> getPath(Long userId, Long otherUserId) {
+        checkUsersExist(userId, otherUserId);
+        long[] pathIds = friendsRepository.getPathIds(userId, otherUserId);
+        if (pathIds.length == 0) {
+            throw new NotFoundException("Связь между пользователями " + userId + " и " + otherUserId + " не найдена");
+        }
+        List<User> path = userRepository.findByIds(pathIds);
+        log.info("Найдена цепочка друзей от пользователя {} до {}. Длина: {}", userId, otherUserId, path.size() - 1);
+        return path;
+    }
+
     public List<Event> getUserEvents(Long userId) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
+        eventJournal.flush();
         return eventRepository.getUserEvents(userId);
     }
 
+    public Page<Event> getUserEvents(Long userId, String cursor, int limit) {
+        PageCursor.checkLimit(limit);
+        long afterEventId = cursor != null ? PageCursor.decode(cursor).getId() : Long.MIN_VALUE;
+        eventJournal.flush();
+        List<Event> events = eventRepository.getUserEvents(userId, afterEventId, limit);
+        if (events.isEmpty()) {
+            getUserById(userId);
+        }
+        String nextCursor = null;
+        if (events.size() == limit) {
+            Event last = events.get(events.size() - 1);
+            nextCursor = new PageCursor(last.getEventId(), last.getEventId()).encode();
+        }
+        return new Page<>(events, nextCursor);
+    }
+
+    private void checkUsersExist(Long userId, Long otherUserId) {
+        Set<Long> existing = userRepository.findExistingIds(List.of(userId, otherUserId));
+        for (Long id : List.of(userId, otherUserId)) {
+            if (!existing.contains(id)) {
+                throw new NotFoundException("Пользователь с id " + id + " не найден");
+            }
+        }
+    }
+
     private void validateUser(User user) {
         if (user.getEmail().isBlank() || !user.getEmail().contains("@")) {
             throw new ValidationException("Электронная почта не может быть пустой и должна содержать символ @");
@@ -64,12 +64,15 @@ CREATE TABLE IF NOT EXISTS directed_by (
     FOREIGN KEY (film_id) REFERENCES films(film_id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS directed_by_film_idx ON directed_by (film_id);
+
 CREATE TABLE IF NOT EXISTS reviews (
     review_id BIGINT generated by default as identity not null PRIMARY key,
     isPositive VARCHAR(6) NOT NULL,
     content VARCHAR(350) NOT NULL,
     film_id BIGINT,
     user_id BIGINT,
+    usefulness BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (film_id) REFERENCES films(film_id) ON DELETE CASCADE,
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
 );
@@ -92,4 +95,8 @@ CREATE TABLE IF NOT EXISTS events (
     operation VARCHAR(50) NOT NULL,
     entity_id BIGINT NOT NULL,
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS reviews_film_usefulness_idx ON reviews (film_id, usefulness DESC, review_id);
+CREATE INDEX IF NOT EXISTS reviews_usefulness_idx ON reviews (usefulness DESC, review_id);
+CREATE INDEX IF NOT EXISTS events_user_idx ON events (user_id, event_id);
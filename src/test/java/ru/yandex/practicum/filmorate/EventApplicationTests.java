@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dal.EventRepository;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.enums.EventType;
+import ru.yandex.practicum.filmorate.model.enums.OperationType;
+import ru.yandex.practicum.filmorate.service.EventJournal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EventRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EventApplicationTests {
+    private static final int EVENTS = 50;
+    private static final String COUNT_EVENTS = "SELECT COUNT(*) FROM events WHERE user_id = ? AND entity_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TestData testData;
+    private final EventRepository eventRepository;
+    private long userId;
+
+    @Autowired
+    public EventApplicationTests(JdbcTemplate jdbcTemplate, EventRepository eventRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testData = new TestData(jdbcTemplate);
+        this.eventRepository = eventRepository;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        userId = testData.insertUser("journal");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", userId);
+    }
+
+    @Test
+    public void testFailedBatchLeavesNoRows() {
+        List<Event> events = events();
+
+        assertThatThrownBy(() -> eventRepository.saveAll(events)).isInstanceOf(RuntimeException.class);
+        for (int i = 0; i < EVENTS; i++) {
+            assertThat(jdbcTemplate.queryForObject(COUNT_EVENTS, Long.class, userId, i)).isZero();
+        }
+    }
+
+    @Test
+    public void testEachEventIsWrittenOnceAfterFailedBatch() {
+        EventJournal journal = new EventJournal(eventRepository, true, 1000, 1000, 5000);
+        journal.start();
+        try {
+            journal.publishAll(events());
+            journal.flush();
+
+            for (int i = 0; i < EVENTS; i++) {
+                assertThat(jdbcTemplate.queryForObject(COUNT_EVENTS, Long.class, userId, i))
+                        .as("Событие %d", i)
+                        .isEqualTo(1);
+            }
+            assertThat(journal.getStats().failed()).isEqualTo(1);
+            assertThat(journal.getStats().written()).isEqualTo(EVENTS);
+        } finally {
+            journal.stop();
+        }
+    }
+
+    @Test
+    public void testEventIdsFollowPublishOrderWhenQueueIsFull() {
+        EventJournal journal = new EventJournal(eventRepository, true, 2, 3, 5000);
+        journal.start();
+        try {
+            for (int i = 0; i < EVENTS; i++) {
+                journal.publishAll(List.of(event(userId, 2L * i), event(userId, 2L * i + 1)));
+            }
+            journal.flush();
+
+            assertThat(jdbcTemplate.queryForList("SELECT entity_id FROM events WHERE user_id = ? ORDER BY event_id",
+                    Long.class, userId))
+                    .containsExactlyElementsOf(LongStream.range(0, 2L * EVENTS).boxed().toList());
+        } finally {
+            journal.stop();
+        }
+    }
+
+    @Test
+    public void testEventsAreWrittenAfterStop() {
+        EventJournal journal = new EventJournal(eventRepository, true, 1000, 1000, 5000);
+        journal.start();
+        journal.stop();
+
+        journal.publish(event(userId, 0));
+
+        assertThat(jdbcTemplate.queryForObject(COUNT_EVENTS, Long.class, userId, 0)).isEqualTo(1);
+    }
+
+    private List<Event> events() {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(event(userId, i));
+            if (i == EVENTS / 2) {
+                events.add(event(userId + 1_000_000, i));
+            }
+        }
+        return events;
+    }
+
+    private static Event event(long userId, long entityId) {
+        return new Event(System.currentTimeMillis(), userId, EventType.FRIEND, OperationType.ADD, entityId);
+    }
+}
@@ -1,45 +1,233 @@
 package ru.yandex.practicum.filmorate;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
-import ru.yandex.practicum.filmorate.dal.FilmRepository;
-import ru.yandex.practicum.filmorate.dal.GenreRepository;
-import ru.yandex.practicum.filmorate.dal.MpaRepository;
-import ru.yandex.practicum.filmorate.dal.UserRepository;
-import ru.yandex.practicum.filmorate.dal.mappers.FilmRowMapper;
-import ru.yandex.practicum.filmorate.dal.mappers.GenreRowMapper;
-import ru.yandex.practicum.filmorate.dal.mappers.MpaRowMapper;
-import ru.yandex.practicum.filmorate.dal.mappers.UserRowMapper;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.dal.memory.*;
+import ru.yandex.practicum.filmorate.dto.DirectorDto;
 import ru.yandex.practicum.filmorate.dto.film.FilmDto;
 import ru.yandex.practicum.filmorate.dto.film.NewFilmRequest;
 import ru.yandex.practicum.filmorate.dto.GenreDto;
 import ru.yandex.practicum.filmorate.dto.MpaDto;
+import ru.yandex.practicum.filmorate.dto.PageCursor;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.service.FilmService;
-import ru.yandex.practicum.filmorate.service.GenreService;
-import ru.yandex.practicum.filmorate.service.MpaService;
-import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.enums.DirectorQueryParams;
+import ru.yandex.practicum.filmorate.service.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 @JdbcTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @Import({FilmRepository.class, UserRepository.class, GenreRepository.class, MpaRepository.class,
         FilmService.class, UserService.class, GenreService.class, MpaService.class,
-        FilmRowMapper.class, UserRowMapper.class, GenreRowMapper.class, MpaRowMapper.class})
+        FilmRowMapper.class, UserRowMapper.class, GenreRowMapper.class, MpaRowMapper.class,
+        DirectorRepository.class, DirectorRowMapper.class, FilmFullTextRepository.class, LikeRepository.class,
+        FriendsRepository.class, FriendGraph.class, EventRepository.class, EventJournal.class,
+        LikeWriteBuffer.class, PopularityLeaderboard.class, FilmCache.class, ReferenceDataRegistry.class,
+        FilmSearchIndex.class, FilmSuggestIndex.class, LikeMatrix.class, FilmController.class,
+        FilmImportService.class, DirectorService.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = "filmorate.events.journal.enabled=false")
 public class FilmApplicationTests {
+    private static final int FILMS = 30;
+    private static final int DIRECTORS = 6;
+    private static final String FIND_GENRES = "SELECT g.genre_id, g.name FROM film_genres fg " +
+            "JOIN genres g ON fg.genre_id = g.genre_id WHERE fg.film_id = ? ORDER BY g.genre_id";
+    private static final String FIND_DIRECTORS = "SELECT d.director_id, d.name FROM directed_by db " +
+            "JOIN directors d ON db.director_id = d.director_id WHERE db.film_id = ? ORDER BY d.director_id";
+    private static final String FIND_MPA_NAME = "SELECT m.name FROM films f " +
+            "JOIN mpa m ON f.mpa_id = m.mpa_id WHERE f.film_id = ?";
 
+    private final JdbcTemplate jdbcTemplate;
+    private final TestData testData;
     private final FilmService filmService;
+    private final FilmRepository filmRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final DirectorService directorService;
+    private final FilmCache filmCache;
+    private final FilmController filmController;
+    private final ObjectMapper objectMapper;
+    private final List<Long> filmIds = new ArrayList<>();
+    private final List<Long> directorIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
 
     @Autowired
-    public FilmApplicationTests(FilmService filmService) {
+    public FilmApplicationTests(JdbcTemplate jdbcTemplate, FilmService filmService, FilmRepository filmRepository,
+                                ReferenceDataRegistry referenceDataRegistry, DirectorService directorService,
+                                FilmCache filmCache, FilmController filmController, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testData = new TestData(jdbcTemplate);
         this.filmService = filmService;
+        this.filmRepository = filmRepository;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.directorService = directorService;
+        this.filmCache = filmCache;
+        this.filmController = filmController;
+        this.objectMapper = objectMapper;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < DIRECTORS; i++) {
+            directorIds.add(testData.insertDirector("director" + i));
+        }
+        for (int i = 0; i < FILMS; i++) {
+            long filmId = testData.insertFilm("hydrated" + i, LocalDate.of(1990 + random.nextInt(30), 1, 1));
+            filmIds.add(filmId);
+            for (long genreId = 1; genreId <= 6; genreId++) {
+                if (random.nextInt(3) == 0) {
+                    jdbcTemplate.update("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", filmId, genreId);
+                }
+            }
+            for (Long directorId : directorIds) {
+                if (random.nextInt(4) == 0) {
+                    jdbcTemplate.update("INSERT INTO directed_by (director_id, film_id) VALUES (?, ?)",
+                            directorId, filmId);
+                }
+            }
+        }
+        referenceDataRegistry.refresh();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        filmIds.forEach(filmId -> jdbcTemplate.update("DELETE FROM films WHERE film_id = ?", filmId));
+        directorIds.forEach(directorId ->
+                jdbcTemplate.update("DELETE FROM directors WHERE director_id = ?", directorId));
+        userIds.forEach(userId -> jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", userId));
+        filmCache.clear();
+        referenceDataRegistry.refresh();
+    }
+
+    @Test
+    public void testFilmRelationsMatchSql() {
+        List<Film> films = filmRepository.findAll();
+
+        assertThat(films).extracting(Film::getId).containsAll(filmIds);
+        for (Film film : films) {
+            assertRelationsMatchSql(film);
+            assertThat(filmRepository.findById(film.getId())).contains(film);
+        }
+        for (Long directorId : directorIds) {
+            for (DirectorQueryParams sortBy : DirectorQueryParams.values()) {
+                filmRepository.getDirectorsFilms(directorId, sortBy).forEach(this::assertRelationsMatchSql);
+            }
+        }
+    }
+
+    @Test
+    public void testFindByIdsKeepsRequestedOrder() {
+        List<Long> ids = new ArrayList<>(filmIds);
+        Collections.shuffle(ids, new Random(7));
+        ids.add(2, filmIds.get(FILMS - 1) + 1000);
+        ids.add(ids.get(0));
+
+        List<Film> films = filmService.getFilmsByIds(ids);
+
+        assertThat(films).extracting(Film::getId)
+                .containsExactlyElementsOf(ids.stream().filter(filmIds::contains).toList());
+        films.forEach(this::assertRelationsMatchSql);
+    }
+
+    @Test
+    public void testFindByIdsBindsLargeIdLists() {
+        List<Long> ids = LongStream.rangeClosed(1, 20_000).boxed().toList().reversed();
+
+        assertThat(filmRepository.findByIds(ids)).extracting(Film::getId)
+                .containsExactlyElementsOf(jdbcTemplate.queryForList(
+                        "SELECT film_id FROM films WHERE film_id <= 20000 ORDER BY film_id DESC", Long.class));
+    }
+
+    @Test
+    public void testStreamedFilmsMatchSql() throws IOException {
+        List<Film> expected = jdbcTemplate.queryForList("SELECT film_id FROM films ORDER BY film_id", Long.class)
+                .stream()
+                .map(filmId -> filmRepository.findById(filmId).orElseThrow())
+                .toList();
+
+        assertThat(objectMapper.readValue(getAllFilms(null, null, null).getBody(), new TypeReference<List<Film>>() {
+        })).containsExactlyElementsOf(expected);
+        assertThat(readLines(getAllFilms("application/x-ndjson", null, null).getBody()))
+                .containsExactlyElementsOf(expected);
+
+        List<Film> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            ResponseEntity<byte[]> page = getAllFilms("application/x-ndjson", cursor, 7);
+            paged.addAll(readLines(page.getBody()));
+            cursor = page.getHeaders().getFirst(PageCursor.HEADER);
+        } while (cursor != null);
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testCachedFilmsFollowChanges() {
+        long userId = testData.insertUser("cached");
+        userIds.add(userId);
+        assertCachedFilmsMatchSql();
+
+        filmService.addLike(filmIds.get(0), userId);
+        assertCachedFilmsMatchSql();
+
+        NewFilmRequest update = new NewFilmRequest();
+        update.setId(filmIds.get(1));
+        update.setName("recached");
+        update.setReleaseDate(LocalDate.of(2001, 1, 1));
+        update.setDuration(90L);
+        MpaDto mpa = new MpaDto();
+        mpa.setId(2L);
+        update.setMpa(mpa);
+        GenreDto genre = new GenreDto();
+        genre.setId(3L);
+        update.setGenres(List.of(genre));
+        update.setDirectors(List.of(DirectorDto.builder().id(directorIds.get(0)).build()));
+        filmService.update(update);
+        assertCachedFilmsMatchSql();
+
+        directorService.update(DirectorDto.builder().id(directorIds.get(1)).name("renamed director").build());
+        assertCachedFilmsMatchSql();
+
+        directorService.delete(directorIds.get(2));
+        assertCachedFilmsMatchSql();
+
+        filmService.deleteFilm(filmIds.get(3));
+        assertCachedFilmsMatchSql();
     }
 
     @Test
@@ -162,4 +350,52 @@ public class FilmApplicationTests {
         assertThat(retrievedFilm.getGenres()).hasSize(1);
         assertThat(retrievedFilm.getGenres().get(0).getId()).isEqualTo(1L);
     }
+
+    private void assertCachedFilmsMatchSql() {
+        for (Long filmId : filmIds) {
+            Optional<Film> film = filmRepository.findById(filmId);
+            assertThat(filmCache.get(filmId, filmRepository::findById))
+                    .as("Фильм %d в кэше", filmId)
+                    .isEqualTo(film);
+            if (film.isPresent()) {
+                assertThat(filmService.getFilmById(filmId))
+                        .as("Фильм %d из кэша", filmId)
+                        .isEqualTo(FilmMapper.mapToFilmDto(film.get()));
+            } else {
+                assertThatThrownBy(() -> filmService.getFilmById(filmId)).isInstanceOf(NotFoundException.class);
+            }
+        }
+    }
+
+    private ResponseEntity<byte[]> getAllFilms(String accept, String cursor, Integer limit) throws IOException {
+        ResponseEntity<StreamingResponseBody> response = filmController.getAllFilms(accept, cursor, limit);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        response.getBody().writeTo(body);
+        return new ResponseEntity<>(body.toByteArray(), response.getHeaders(), response.getStatusCode());
+    }
+
+    private List<Film> readLines(byte[] body) throws IOException {
+        List<Film> films = new ArrayList<>();
+        for (String line : new String(body, StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                films.add(objectMapper.readValue(line, Film.class));
+            }
+        }
+        return films;
+    }
+
+    private void assertRelationsMatchSql(Film film) {
+        assertThat(film.getGenres())
+                .as("Жанры фильма %d", film.getId())
+                .extracting(Genre::getId, Genre::getName)
+                .containsExactlyElementsOf(jdbcTemplate.query(FIND_GENRES, (rs, rowNum) ->
+                        tuple(rs.getLong("genre_id"), rs.getString("name")), film.getId()));
+        assertThat(film.getDirectors())
+                .as("Режиссёры фильма %d", film.getId())
+                .extracting(Director::getId, Director::getName)
+                .containsExactlyElementsOf(jdbcTemplate.query(FIND_DIRECTORS, (rs, rowNum) ->
+                        tuple(rs.getLong("director_id"), rs.getString("name")), film.getId()));
+        assertThat(film.getMpa().getName())
+                .isEqualTo(jdbcTemplate.queryForObject(FIND_MPA_NAME, String.class, film.getId()));
+    }
 }
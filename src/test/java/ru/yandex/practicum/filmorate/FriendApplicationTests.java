@@ -0,0 +1,198 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.dal.EventRepository;
+import ru.yandex.practicum.filmorate.dal.FriendsRepository;
+import ru.yandex.practicum.filmorate.dal.UserRepository;
+import ru.yandex.practicum.filmorate.dal.mappers.UserRowMapper;
+import ru.yandex.practicum.filmorate.dal.memory.FriendGraph;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.EventJournal;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UserService.class, UserRepository.class, UserRowMapper.class, FriendsRepository.class, FriendGraph.class,
+        EventRepository.class, EventJournal.class})
+@TestPropertySource(properties = "filmorate.events.journal.enabled=false")
+public class FriendApplicationTests {
+    private static final int USERS = 50;
+    private static final String FIND_FRIENDS = "SELECT friend_id FROM friendships WHERE user_id = ? " +
+            "ORDER BY friend_id";
+    private static final String FIND_COMMON_FRIENDS = "SELECT f1.friend_id FROM friendships f1 " +
+            "JOIN friendships f2 ON f1.friend_id = f2.friend_id " +
+            "WHERE f1.user_id = ? AND f2.user_id = ? " +
+            "ORDER BY f1.friend_id";
+    private static final String FIND_SUGGESTIONS = "SELECT f2.friend_id FROM friendships f1 " +
+            "JOIN friendships f2 ON f1.friend_id = f2.user_id " +
+            "WHERE f1.user_id = ? AND f2.friend_id <> ? " +
+            "AND f2.friend_id NOT IN (SELECT friend_id FROM friendships WHERE user_id = ?) " +
+            "GROUP BY f2.friend_id " +
+            "ORDER BY COUNT(*) DESC, f2.friend_id " +
+            "LIMIT ?";
+    private static final String FIND_DISTANCE = "WITH RECURSIVE reach(user_id, depth) AS (" +
+            "SELECT CAST(? AS BIGINT), 0 " +
+            "UNION " +
+            "SELECT f.friend_id, r.depth + 1 FROM reach r " +
+            "JOIN friendships f ON f.user_id = r.user_id " +
+            "WHERE r.depth < ?) " +
+            "SELECT MIN(depth) FROM reach WHERE user_id = ?";
+    private static final String IS_FRIEND = "SELECT COUNT(*) FROM friendships WHERE user_id = ? AND friend_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TestData testData;
+    private final UserService userService;
+    private final FriendGraph friendGraph;
+    private final List<Long> userIds = new ArrayList<>();
+
+    @Autowired
+    public FriendApplicationTests(JdbcTemplate jdbcTemplate, UserService userService, FriendGraph friendGraph) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testData = new TestData(jdbcTemplate);
+        this.userService = userService;
+        this.friendGraph = friendGraph;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        friendGraph.invalidate();
+        userIds.addAll(testData.insertUsers("friend", USERS));
+        testData.addRandomFriendships(userIds, new Random(42), 8);
+    }
+
+    @Test
+    public void testGraphMatchesSql() {
+        FriendGraph graph = newGraph(6);
+
+        assertAdjacencyMatchesSql(graph);
+    }
+
+    @Test
+    public void testGraphFollowsFriendshipChanges() {
+        FriendGraph graph = newGraph(6);
+        assertAdjacencyMatchesSql(graph);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            long userId = userIds.get(random.nextInt(USERS));
+            long friendId = userIds.get(random.nextInt(USERS));
+            if (userId == friendId) {
+                continue;
+            }
+            if (jdbcTemplate.update("DELETE FROM friendships WHERE user_id = ? AND friend_id = ?",
+                    userId, friendId) > 0) {
+                graph.removeFriend(userId, friendId);
+            } else {
+                testData.addFriendship(userId, friendId);
+                graph.addFriend(userId, friendId);
+            }
+        }
+        long deletedUser = userIds.get(0);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", deletedUser);
+        graph.userDeleted(deletedUser);
+
+        assertAdjacencyMatchesSql(graph);
+    }
+
+    @Test
+    public void testSuggestionsMatchMutualFriendCounts() {
+        FriendGraph graph = newGraph(6);
+
+        for (Long userId : userIds) {
+            assertThat(toList(graph.suggestFriends(userId, 5)))
+                    .as("Рекомендованные друзья пользователя %d", userId)
+                    .containsExactlyElementsOf(jdbcTemplate.queryForList(FIND_SUGGESTIONS, Long.class,
+                            userId, userId, userId, 5));
+        }
+    }
+
+    @Test
+    public void testPathIsShortest() {
+        FriendGraph graph = newGraph(6);
+
+        Random random = new Random(11);
+        for (int i = 0; i < 100; i++) {
+            long fromId = userIds.get(random.nextInt(USERS));
+            long toId = userIds.get(random.nextInt(USERS));
+            long[] path = graph.findPath(fromId, toId);
+            Integer distance = jdbcTemplate.queryForObject(FIND_DISTANCE, Integer.class, fromId, 6, toId);
+            if (distance == null) {
+                assertThat(path).isEmpty();
+                continue;
+            }
+            assertThat(path).hasSize(distance + 1);
+            assertThat(path[0]).isEqualTo(fromId);
+            assertThat(path[path.length - 1]).isEqualTo(toId);
+            for (int j = 1; j < path.length; j++) {
+                assertThat(jdbcTemplate.queryForObject(IS_FRIEND, Integer.class, path[j - 1], path[j]))
+                        .as("Связь %d -> %d", path[j - 1], path[j])
+                        .isEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    public void testMissingPathIsNotFound() {
+        long loneId = testData.insertUser("lone");
+
+        assertThatThrownBy(() -> userService.getPath(userIds.get(0), loneId))
+                .isInstanceOf(NotFoundException.class);
+        assertThat(userService.getPath(loneId, loneId)).extracting(User::getId).containsExactly(loneId);
+    }
+
+    @Test
+    public void testPathRespectsMaxDepth() {
+        List<Long> chain = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            chain.add(testData.insertUser("chain" + i));
+            if (i > 0) {
+                testData.addFriendship(chain.get(i - 1), chain.get(i));
+            }
+        }
+        FriendGraph graph = newGraph(3);
+
+        assertThat(toList(graph.findPath(chain.get(0), chain.get(3)))).containsExactlyElementsOf(chain.subList(0, 4));
+        assertThat(graph.findPath(chain.get(0), chain.get(4))).isEmpty();
+        assertThat(graph.findPath(chain.get(4), chain.get(0))).isEmpty();
+    }
+
+    private FriendGraph newGraph(int maxPathDepth) {
+        return new FriendGraph(jdbcTemplate, 1000, maxPathDepth, 200_000);
+    }
+
+    private void assertAdjacencyMatchesSql(FriendGraph graph) {
+        for (Long userId : userIds) {
+            assertThat(toList(graph.getFriends(userId)))
+                    .as("Друзья пользователя %d", userId)
+                    .containsExactlyElementsOf(jdbcTemplate.queryForList(FIND_FRIENDS, Long.class, userId));
+        }
+        for (int i = 1; i < USERS; i++) {
+            long userId = userIds.get(i - 1);
+            long otherUserId = userIds.get(i);
+            assertThat(toList(graph.getCommonFriends(userId, otherUserId)))
+                    .as("Общие друзья пользователей %d и %d", userId, otherUserId)
+                    .containsExactlyElementsOf(jdbcTemplate.queryForList(FIND_COMMON_FRIENDS, Long.class,
+                            userId, otherUserId));
+        }
+    }
+
+    private static List<Long> toList(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+}
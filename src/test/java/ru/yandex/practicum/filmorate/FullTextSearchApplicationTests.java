@@ -0,0 +1,151 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dal.FilmFullTextRepository;
+import ru.yandex.practicum.filmorate.model.enums.SearchBackend;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FullTextSearchApplicationTests {
+    private static final int USERS = 20;
+    private static final int FILMS = 60;
+    private static final int DIRECTORS = 8;
+    private static final String SEARCH = "SELECT f.film_id FROM films f " +
+            "WHERE (? AND ' ' || LOWER(f.name) || ' ' LIKE ? AND ' ' || LOWER(f.name) || ' ' LIKE ?) " +
+            "OR (? AND f.film_id IN (SELECT db.film_id FROM directed_by db " +
+            "JOIN directors d ON db.director_id = d.director_id " +
+            "WHERE ' ' || LOWER(d.name) || ' ' LIKE ? AND ' ' || LOWER(d.name) || ' ' LIKE ?)) " +
+            "ORDER BY COALESCE(f.rate, 0) DESC, f.film_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TestData testData;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> filmIds = new ArrayList<>();
+    private final List<Long> directorIds = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private SearchBackend backend;
+
+    @Autowired
+    public FullTextSearchApplicationTests(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testData = new TestData(jdbcTemplate);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(42);
+        userIds.addAll(testData.insertUsers("fulltext", USERS));
+        for (int i = 0; i < DIRECTORS; i++) {
+            directorIds.add(testData.insertDirector(randomName(random, 2)));
+        }
+        for (int i = 0; i < FILMS; i++) {
+            long filmId = testData.insertFilm(randomName(random, 1 + random.nextInt(3)));
+            filmIds.add(filmId);
+            if (random.nextBoolean()) {
+                jdbcTemplate.update("INSERT INTO directed_by (director_id, film_id) VALUES (?, ?)",
+                        directorIds.get(random.nextInt(DIRECTORS)), filmId);
+            }
+        }
+        testData.addRandomLikes(userIds, filmIds, random, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (backend != null) {
+            jdbcTemplate.execute(backend == SearchBackend.lucene ? "CALL FTL_DROP_ALL()" : "CALL FT_DROP_ALL()");
+        }
+        filmIds.forEach(filmId -> jdbcTemplate.update("DELETE FROM films WHERE film_id = ?", filmId));
+        directorIds.forEach(directorId ->
+                jdbcTemplate.update("DELETE FROM directors WHERE director_id = ?", directorId));
+        userIds.forEach(userId -> jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", userId));
+    }
+
+    @Test
+    public void testFullTextSearchMatchesSql() {
+        FilmFullTextRepository repository = createIndexes(SearchBackend.fulltext);
+
+        assertSearchMatchesSql(repository, false);
+    }
+
+    @Test
+    @EnabledIf("isLuceneAvailable")
+    public void testLuceneSearchMatchesSql() {
+        FilmFullTextRepository repository = createIndexes(SearchBackend.lucene);
+
+        assertSearchMatchesSql(repository, true);
+    }
+
+    static boolean isLuceneAvailable() {
+        try {
+            Class.forName("org.apache.lucene.store.Directory");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private FilmFullTextRepository createIndexes(SearchBackend backend) {
+        this.backend = backend;
+        FilmFullTextRepository repository = new FilmFullTextRepository(jdbcTemplate, backend);
+        repository.init();
+        filmIds.add(testData.insertFilm(names.get(0) + " " + names.get(1)));
+        return repository;
+    }
+
+    private void assertSearchMatchesSql(FilmFullTextRepository repository, boolean byPrefix) {
+        Set<Long> testFilms = new HashSet<>(filmIds);
+        Random random = new Random(5);
+        for (String name : names) {
+            String[] words = name.split(" ");
+            String first = words[random.nextInt(words.length)];
+            String second = words[random.nextInt(words.length)];
+            if (byPrefix) {
+                first = first.substring(0, 1 + random.nextInt(first.length()));
+            }
+            for (String query : List.of(first, first + " " + second)) {
+                String[] parts = query.split(" ");
+                String firstPattern = pattern(parts[0], byPrefix);
+                String secondPattern = pattern(parts[parts.length - 1], byPrefix);
+                for (boolean[] by : new boolean[][]{{true, false}, {false, true}, {true, true}}) {
+                    List<Long> expected = jdbcTemplate.queryForList(SEARCH, Long.class,
+                            by[0], firstPattern, secondPattern, by[1], firstPattern, secondPattern);
+                    assertThat(repository.search(query, by[0], by[1]).stream().filter(testFilms::contains))
+                            .as("Поиск \"%s\" по названию %s, по режиссёру %s", query, by[0], by[1])
+                            .containsExactlyElementsOf(expected.stream().filter(testFilms::contains).toList());
+                }
+            }
+        }
+    }
+
+    private static String pattern(String word, boolean byPrefix) {
+        return byPrefix ? "% " + word + "%" : "% " + word + " %";
+    }
+
+    private String randomName(Random random, int wordCount) {
+        StringJoiner name = new StringJoiner(" ");
+        for (int i = 0; i < wordCount; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(4);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(5)));
+            }
+            name.add(word);
+        }
+        names.add(name.toString());
+        return name.toString();
+    }
+}
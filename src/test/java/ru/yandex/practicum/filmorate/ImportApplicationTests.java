@@ -0,0 +1,146 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.dal.memory.*;
+import ru.yandex.practicum.filmorate.dto.film.FilmImportErrorDto;
+import ru.yandex.practicum.filmorate.dto.film.FilmImportResultDto;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.EventJournal;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.LikeWriteBuffer;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({FilmService.class, FilmRepository.class, FilmRowMapper.class, FilmFullTextRepository.class,
+        UserRepository.class, UserRowMapper.class, FriendGraph.class, LikeRepository.class, EventJournal.class,
+        EventRepository.class, PopularityLeaderboard.class, LikeWriteBuffer.class, FilmCache.class,
+        ReferenceDataRegistry.class, GenreRepository.class, GenreRowMapper.class, MpaRepository.class,
+        MpaRowMapper.class, DirectorRepository.class, DirectorRowMapper.class, FilmSearchIndex.class,
+        FilmSuggestIndex.class, LikeMatrix.class})
+@TestPropertySource(properties = "filmorate.events.journal.enabled=false")
+public class ImportApplicationTests {
+    private static final String FIND_FILM = "SELECT name FROM films WHERE film_id = ?";
+    private static final String FIND_GENRES = "SELECT genre_id FROM film_genres WHERE film_id = ? ORDER BY genre_id";
+    private static final String FIND_IMPORTED = "SELECT name FROM films WHERE name LIKE 'imported-%' ORDER BY name";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TestData testData;
+    private final FilmRepository filmRepository;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final FilmImportService filmImportService;
+    private final List<Long> directorIds = new ArrayList<>();
+
+    @Autowired
+    public ImportApplicationTests(JdbcTemplate jdbcTemplate, FilmService filmService, FilmRepository filmRepository,
+                                  ReferenceDataRegistry referenceDataRegistry,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectProvider<Validator> validator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testData = new TestData(jdbcTemplate);
+        this.filmRepository = filmRepository;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.filmImportService = new FilmImportService(filmService, filmRepository,
+                new ObjectMapper().findAndRegisterModules(), transactionManager, validator, 3, 10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM films WHERE name LIKE 'imported-%'");
+        directorIds.forEach(directorId ->
+                jdbcTemplate.update("DELETE FROM directors WHERE director_id = ?", directorId));
+        referenceDataRegistry.refresh();
+    }
+
+    @Test
+    public void testCreateAllMapsGeneratedKeysInOrder() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Film film = new Film();
+            film.setName("batched" + i);
+            film.setDescription("description");
+            film.setReleaseDate(LocalDate.of(2000, 1, 1).plusDays(i));
+            film.setDuration(100L + i);
+            Mpa mpa = new Mpa();
+            mpa.setId(1L + i % 5);
+            film.setMpa(mpa);
+            for (long genreId = 1; genreId <= 1 + i % 3; genreId++) {
+                Genre genre = new Genre();
+                genre.setId(genreId);
+                film.getGenres().add(genre);
+            }
+            films.add(film);
+        }
+
+        filmRepository.createAll(films);
+
+        assertThat(films).extracting(Film::getId).doesNotContainNull().doesNotHaveDuplicates();
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            assertThat(jdbcTemplate.queryForObject(FIND_FILM, String.class, film.getId()))
+                    .isEqualTo("batched" + i);
+            assertThat(jdbcTemplate.queryForList(FIND_GENRES, Long.class, film.getId()))
+                    .containsExactlyElementsOf(film.getGenres().stream().map(Genre::getId).toList());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testImportRollsBackFailedChunk() throws Exception {
+        long directorId = testData.insertDirector("imported director");
+        directorIds.add(directorId);
+        referenceDataRegistry.refresh();
+        jdbcTemplate.update("DELETE FROM directors WHERE director_id = ?", directorId);
+        String future = LocalDate.now().plusYears(1).toString();
+        String lines = String.join("\n",
+                film("imported-1", "2000-01-01", ""),
+                film("imported-2", "2000-01-01", ""),
+                film("imported-3", "2000-01-01", ""),
+                film("imported-4", "2000-01-01", ""),
+                film("imported-5", "2000-01-01", "{\"id\":" + directorId + "}"),
+                film("imported-6", "2000-01-01", ""),
+                film("imported-7", future, ""),
+                "{not json",
+                film("imported-9", "2000-01-01", ""));
+
+        FilmImportResultDto result = filmImportService.importFilms(new BufferedReader(new StringReader(lines)));
+
+        assertThat(result.getLines()).isEqualTo(9);
+        assertThat(result.getImported()).isEqualTo(4);
+        assertThat(result.getFailed()).isEqualTo(5);
+        assertThat(result.getErrors()).extracting(FilmImportErrorDto::getLine)
+                .containsExactlyInAnyOrder(4L, 5L, 6L, 7L, 8L);
+        assertThat(jdbcTemplate.queryForList(FIND_IMPORTED, String.class))
+                .containsExactly("imported-1", "imported-2", "imported-3", "imported-9");
+    }
+
+    private static String film(String name, String releaseDate, String directors) {
+        return "{\"name\":\"" + name + "\",\"description\":\"description\",\"releaseDate\":\"" + releaseDate
+                + "\",\"duration\":100,\"mpa\":{\"id\":1},\"directors\":[" + directors + "]}";
+    }
+}
@@ -0,0 +1,272 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dal.EventRepository;
+import ru.yandex.practicum.filmorate.dal.LikeRepository;
+import ru.yandex.practicum.filmorate.dal.UserRepository;
+import ru.yandex.practicum.filmorate.dal.mappers.UserRowMapper;
+import ru.yandex.practicum.filmorate.dal.memory.FriendGraph;
+import ru.yandex.practicum.filmorate.dal.memory.PopularityLeaderboard;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.LikeOperation;
+import ru.yandex.practicum.filmorate.model.enums.EventType;
+import ru.yandex.practicum.filmorate.model.enums.OperationType;
+import ru.yandex.practicum.filmorate.service.EventJournal;
+import ru.yandex.practicum.filmorate.service.LikeWriteBuffer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LikeRepository.class, UserRepository.class, UserRowMapper.class, FriendGraph.class,
+        EventRepository.class, PopularityLeaderboard.class})
+public class LikeApplicationTests {
+    private static final int USERS = 30;
+    private static final int FILMS = 20;
+    private static final String FIND_RATE = "SELECT COALESCE(rate, 0) FROM films WHERE film_id = ?";
+    private static final String COUNT_LIKES = "SELECT COUNT(*) FROM likes WHERE film_id = ?";
+    private static final String FIND_TOP = "SELECT f.film_id FROM films f " +
+            "LEFT JOIN likes l ON f.film_id = l.film_id " +
+            "WHERE (CAST(? AS BIGINT) IS NULL OR f.film_id IN (SELECT film_id FROM film_genres WHERE genre_id = ?)) " +
+            "AND (CAST(? AS INT) IS NULL OR EXTRACT(YEAR FROM f.release_date) = ?) " +
+            "GROUP BY f.film_id " +
+            "ORDER BY COUNT(l.user_id) DESC, f.film_id " +
+            "LIMIT ?";
+    private static final String COUNT_USER_LIKE_EVENTS = "SELECT COUNT(*) FROM events " +
+            "WHERE user_id = ? AND entity_id = ? AND event_type = 'LIKE'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TestData testData;
+    private final LikeRepository likeRepository;
+    private final UserRepository userRepository;
+    private final EventRepository eventRepository;
+    private final PopularityLeaderboard popularityLeaderboard;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> filmIds = new ArrayList<>();
+
+    @Autowired
+    public LikeApplicationTests(JdbcTemplate jdbcTemplate, LikeRepository likeRepository,
+                                UserRepository userRepository, EventRepository eventRepository,
+                                PopularityLeaderboard popularityLeaderboard) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testData = new TestData(jdbcTemplate);
+        this.likeRepository = likeRepository;
+        this.userRepository = userRepository;
+        this.eventRepository = eventRepository;
+        this.popularityLeaderboard = popularityLeaderboard;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        popularityLeaderboard.invalidate();
+        Random random = new Random(42);
+        userIds.addAll(testData.insertUsers("liker", USERS));
+        for (int i = 0; i < FILMS; i++) {
+            long filmId = testData.insertFilm("liked" + i, LocalDate.of(2000 + random.nextInt(3), 1, 1));
+            filmIds.add(filmId);
+            for (long genreId = 1; genreId <= 3; genreId++) {
+                if (random.nextBoolean()) {
+                    jdbcTemplate.update("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)",
+                            filmId, genreId);
+                }
+            }
+        }
+        testData.addRandomLikes(userIds, filmIds, random, 3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        filmIds.forEach(filmId -> jdbcTemplate.update("DELETE FROM films WHERE film_id = ?", filmId));
+        userIds.forEach(userId -> jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", userId));
+    }
+
+    @Test
+    public void testLeaderboardMatchesSql() {
+        assertLeaderboardMatchesSql();
+    }
+
+    @Test
+    public void testLeaderboardFollowsLikeChanges() {
+        assertLeaderboardMatchesSql();
+
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            long userId = userIds.get(random.nextInt(USERS));
+            long filmId = filmIds.get(random.nextInt(FILMS));
+            if (likeRepository.removeLike(filmId, userId)) {
+                popularityLeaderboard.likeRemoved(filmId, userId);
+            } else {
+                likeRepository.addLike(filmId, userId);
+                popularityLeaderboard.likeAdded(filmId, userId);
+            }
+        }
+
+        assertLeaderboardMatchesSql();
+    }
+
+    @Test
+    public void testLeaderboardIgnoresReplayedLikes() {
+        long userId = testData.insertUser("replayer");
+        for (Long filmId : filmIds.subList(0, 5)) {
+            likeRepository.addLike(filmId, userId);
+        }
+        popularityLeaderboard.invalidate();
+        assertLeaderboardMatchesSql();
+
+        for (Long filmId : filmIds.subList(0, 5)) {
+            popularityLeaderboard.likeAdded(filmId, userId);
+            popularityLeaderboard.likeAdded(filmId, userId);
+        }
+        assertLeaderboardMatchesSql();
+
+        for (Long filmId : filmIds.subList(0, 5)) {
+            likeRepository.removeLike(filmId, userId);
+            popularityLeaderboard.likeRemoved(filmId, userId);
+            popularityLeaderboard.likeRemoved(filmId, userId);
+        }
+        assertLeaderboardMatchesSql();
+    }
+
+    @Test
+    public void testBatchLikesAreIdempotent() {
+        Random random = new Random(13);
+        List<LikeOperation> operations = new ArrayList<>();
+        for (Long userId : userIds.subList(0, 10)) {
+            for (Long filmId : filmIds) {
+                if (random.nextBoolean()) {
+                    operations.add(new LikeOperation(filmId, userId,
+                            random.nextBoolean() ? OperationType.ADD : OperationType.REMOVE));
+                }
+            }
+        }
+        boolean[] expected = new boolean[operations.size()];
+        for (int i = 0; i < expected.length; i++) {
+            LikeOperation operation = operations.get(i);
+            boolean exists = testData.isLiked(operation.getFilmId(), operation.getUserId());
+            expected[i] = operation.getOperation() == OperationType.ADD ? !exists : exists;
+        }
+
+        assertThat(likeRepository.applyLikes(operations)).containsExactly(expected);
+        assertRatesMatchLikes();
+
+        assertThat(likeRepository.applyLikes(operations)).containsOnly(false);
+        assertRatesMatchLikes();
+        for (LikeOperation operation : operations) {
+            assertThat(testData.isLiked(operation.getFilmId(), operation.getUserId()))
+                    .as("Лайк фильма %d от пользователя %d", operation.getFilmId(), operation.getUserId())
+                    .isEqualTo(operation.getOperation() == OperationType.ADD);
+        }
+    }
+
+    @Test
+    public void testRateFollowsDeletedUserLikes() {
+        assertRatesMatchLikes();
+
+        for (Long userId : userIds.subList(0, 5)) {
+            userRepository.delete(userId);
+        }
+
+        assertRatesMatchLikes();
+    }
+
+    @Test
+    public void testWriteBufferWritesValidLikesWhenBatchFails() {
+        EventJournal eventJournal = new EventJournal(eventRepository, false, 100, 100, 100);
+        LikeWriteBuffer buffer = new LikeWriteBuffer(likeRepository, eventJournal, true, 100, 100, 60_000,
+                false, 100);
+        buffer.start();
+        long userId = testData.insertUser("buffered");
+        long missingFilmId = filmIds.get(FILMS - 1) + 1000;
+        for (Long filmId : filmIds.subList(0, 5)) {
+            buffer.enqueue(filmId, userId, OperationType.ADD, likeEvent(userId, filmId));
+        }
+        buffer.enqueue(missingFilmId, userId, OperationType.ADD, likeEvent(userId, missingFilmId));
+        buffer.stop();
+
+        for (Long filmId : filmIds.subList(0, 5)) {
+            assertThat(testData.isLiked(filmId, userId)).isTrue();
+            assertThat(jdbcTemplate.queryForObject(COUNT_USER_LIKE_EVENTS, Long.class, userId, filmId)).isEqualTo(1);
+        }
+        assertThat(jdbcTemplate.queryForObject(COUNT_USER_LIKE_EVENTS, Long.class, userId, missingFilmId))
+                .isZero();
+
+        long filmId = filmIds.get(5);
+        buffer.enqueue(filmId, userId, OperationType.ADD, likeEvent(userId, filmId));
+
+        assertThat(testData.isLiked(filmId, userId)).isTrue();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testSyncAckFailsOnlyForUnwrittenLikes() throws Exception {
+        EventJournal eventJournal = new EventJournal(eventRepository, false, 100, 100, 100);
+        LikeWriteBuffer buffer = new LikeWriteBuffer(likeRepository, eventJournal, true, 100, 6, 60_000,
+                true, 1000);
+        buffer.start();
+        long userId = testData.insertUser("acked");
+        userIds.add(userId);
+        List<Long> targets = new ArrayList<>(filmIds.subList(0, 5));
+        long missingFilmId = filmIds.get(FILMS - 1) + 1000;
+        targets.add(missingFilmId);
+        ExecutorService clients = Executors.newFixedThreadPool(targets.size());
+        try {
+            List<Future<?>> acks = new ArrayList<>();
+            for (Long filmId : targets) {
+                acks.add(clients.submit(() -> buffer.enqueue(filmId, userId, OperationType.ADD,
+                        likeEvent(userId, filmId))));
+            }
+
+            for (int i = 0; i < 5; i++) {
+                acks.get(i).get(10, TimeUnit.SECONDS);
+                assertThat(testData.isLiked(targets.get(i), userId)).isTrue();
+            }
+            assertThatThrownBy(() -> acks.get(5).get(10, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class);
+            assertThat(jdbcTemplate.queryForObject(COUNT_USER_LIKE_EVENTS, Long.class, userId, missingFilmId))
+                    .isZero();
+        } finally {
+            clients.shutdownNow();
+            buffer.stop();
+        }
+    }
+
+    private Event likeEvent(long userId, long filmId) {
+        return new Event(System.currentTimeMillis(), userId, EventType.LIKE, OperationType.ADD, filmId);
+    }
+
+    private void assertLeaderboardMatchesSql() {
+        for (Long genreId : Arrays.asList(null, 1L, 2L, 3L)) {
+            for (Integer year : Arrays.asList(null, 2000, 2001, 2002)) {
+                assertThat(popularityLeaderboard.getTop(5, genreId, year))
+                        .as("Популярные фильмы жанра %s за %s год", genreId, year)
+                        .containsExactlyElementsOf(jdbcTemplate.queryForList(FIND_TOP, Long.class,
+                                genreId, genreId, year, year, 5));
+            }
+        }
+    }
+
+    private void assertRatesMatchLikes() {
+        for (Long filmId : filmIds) {
+            assertThat(jdbcTemplate.queryForObject(FIND_RATE, Long.class, filmId))
+                    .as("Рейтинг фильма %d", filmId)
+                    .isEqualTo(jdbcTemplate.queryForObject(COUNT_LIKES, Long.class, filmId));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.mappers.FilmRowMapper;
+import ru.yandex.practicum.filmorate.dal.mappers.ReviewRowMapper;
+import ru.yandex.practicum.filmorate.dal.mappers.UsefulRowMapper;
+import ru.yandex.practicum.filmorate.dal.mappers.UserRowMapper;
+import ru.yandex.practicum.filmorate.dal.memory.FriendGraph;
+import ru.yandex.practicum.filmorate.dto.PageCursor;
+import ru.yandex.practicum.filmorate.dto.reviews.ReviewResponseDto;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Review;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.EventJournal;
+import ru.yandex.practicum.filmorate.service.ReviewService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UserService.class, UserRepository.class, UserRowMapper.class, FriendsRepository.class, FriendGraph.class,
+        EventRepository.class, EventJournal.class, ReviewService.class, ReviewRepository.class, ReviewRowMapper.class,
+        UsefulRepository.class, UsefulRowMapper.class, FilmRepository.class, FilmRowMapper.class})
+@TestPropertySource(properties = "filmorate.events.journal.enabled=false")
+public class PaginationApplicationTests {
+    private static final int USERS = 30;
+    private static final int FILMS = 12;
+    private static final int PAGE_SIZE = 3;
+    private static final String SUM_USEFUL = "SELECT COALESCE(SUM(useful_count), 0) FROM useful WHERE review_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TestData testData;
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final ReviewService reviewService;
+    private final ReviewRepository reviewRepository;
+    private final UsefulRepository usefulRepository;
+    private final FilmRepository filmRepository;
+    private final FriendGraph friendGraph;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> filmIds = new ArrayList<>();
+    private final List<Long> reviewIds = new ArrayList<>();
+
+    @Autowired
+    public PaginationApplicationTests(JdbcTemplate jdbcTemplate, UserService userService,
+                                      UserRepository userRepository, ReviewService reviewService,
+                                      ReviewRepository reviewRepository, UsefulRepository usefulRepository,
+                                      FilmRepository filmRepository, FriendGraph friendGraph) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testData = new TestData(jdbcTemplate);
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.reviewService = reviewService;
+        this.reviewRepository = reviewRepository;
+        this.usefulRepository = usefulRepository;
+        this.filmRepository = filmRepository;
+        this.friendGraph = friendGraph;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        friendGraph.invalidate();
+        Random random = new Random(42);
+        userIds.addAll(testData.insertUsers("pager", USERS));
+        filmIds.addAll(testData.insertFilms("paged", FILMS));
+        testData.addRandomFriendships(userIds, random, 3);
+        for (Long userId : userIds) {
+            for (int i = random.nextInt(15); i > 0; i--) {
+                jdbcTemplate.update("INSERT INTO events (timestamp, user_id, event_type, operation, entity_id) " +
+                        "VALUES (?, ?, 'LIKE', 'ADD', ?)", i, userId, filmIds.get(random.nextInt(FILMS)));
+            }
+        }
+        for (Long filmId : filmIds) {
+            for (int i = random.nextInt(10); i > 0; i--) {
+                Review review = new Review(null, userIds.get(random.nextInt(USERS)), filmId, random.nextBoolean(),
+                        "content", 0);
+                reviewIds.add(reviewRepository.addNewReview(review).getId());
+            }
+        }
+        for (Long reviewId : reviewIds) {
+            for (Long userId : userIds) {
+                switch (random.nextInt(6)) {
+                    case 0 -> usefulRepository.addLikeToReview(reviewId, userId);
+                    case 1 -> usefulRepository.addDislikeToReview(reviewId, userId);
+                    default -> {
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            usefulRepository.deleteUseful(reviewIds.get(random.nextInt(reviewIds.size())),
+                    userIds.get(random.nextInt(USERS)));
+        }
+    }
+
+    @Test
+    public void testFriendPagesMatchFullList() {
+        for (Long userId : userIds) {
+            List<User> pages = walk(cursor -> userService.getFriends(userId, cursor, PAGE_SIZE).toResponse());
+
+            assertThat(pages).extracting(User::getId)
+                    .containsExactlyElementsOf(userService.getFriends(userId).stream().map(User::getId).toList());
+        }
+    }
+
+    @Test
+    public void testFeedPagesMatchFullList() {
+        for (Long userId : userIds) {
+            List<Event> pages = walk(cursor -> userService.getUserEvents(userId, cursor, PAGE_SIZE).toResponse());
+
+            assertThat(pages).extracting(Event::getEventId)
+                    .containsExactlyElementsOf(userService.getUserEvents(userId).stream()
+                            .map(Event::getEventId)
+                            .sorted()
+                            .toList());
+        }
+    }
+
+    @Test
+    public void testReviewPagesMatchFullList() {
+        assertUsefulnessMatchesVotes();
+        for (Long filmId : filmIds) {
+            List<ReviewResponseDto> pages = walk(cursor -> reviewService.getReviews(filmId, PAGE_SIZE, cursor)
+                    .toResponse());
+
+            assertThat(pages).extracting(ReviewResponseDto::getReviewId)
+                    .containsExactlyElementsOf(reviewService.getReviews(filmId, 0, null).getItems().stream()
+                            .map(ReviewResponseDto::getReviewId)
+                            .toList());
+        }
+        List<ReviewResponseDto> pages = walk(cursor -> reviewService.getReviews(0L, PAGE_SIZE, cursor).toResponse());
+        List<ReviewResponseDto> all = reviewService.getReviews(0L, PageCursor.MAX_LIMIT, null).getItems();
+
+        assertThat(all).hasSizeGreaterThanOrEqualTo(reviewIds.size());
+        assertThat(pages).extracting(ReviewResponseDto::getReviewId)
+                .containsExactlyElementsOf(all.stream().map(ReviewResponseDto::getReviewId).toList());
+    }
+
+    @Test
+    public void testUsefulnessFollowsDeletedUserVotes() {
+        for (Long userId : userIds.subList(0, 5)) {
+            userRepository.delete(userId);
+        }
+
+        assertUsefulnessMatchesVotes();
+    }
+
+    @Test
+    public void testReviewCursorRequiresPositiveCount() {
+        String cursor = reviewService.getReviews(0L, 1, null).getNextCursor();
+
+        assertThat(cursor).isNotNull();
+        assertThatThrownBy(() -> reviewService.getReviews(0L, 0, cursor)).isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    public void testFilmPagesMatchFullList() {
+        List<Long> pages = new ArrayList<>();
+        long afterId = Long.MIN_VALUE;
+        List<Film> page;
+        do {
+            page = filmRepository.findPage(afterId, PAGE_SIZE);
+            page.forEach(film -> pages.add(film.getId()));
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        assertThat(pages).containsExactlyElementsOf(filmRepository.findAll().stream()
+                .map(Film::getId)
+                .sorted()
+                .toList());
+    }
+
+    private void assertUsefulnessMatchesVotes() {
+        for (Long reviewId : reviewIds) {
+            Optional<Review> review = reviewRepository.getReviewById(reviewId);
+            review.ifPresent(found -> assertThat(found.getCount().longValue())
+                    .as("Полезность отзыва %d", reviewId)
+                    .isEqualTo(jdbcTemplate.queryForObject(SUM_USEFUL, Long.class, reviewId)));
+        }
+    }
+
+    private <T> List<T> walk(Function<String, ResponseEntity<List<T>>> fetch) {
+        List<T> items = new ArrayList<>();
+        String cursor = null;
+        do {
+            ResponseEntity<List<T>> response = fetch.apply(cursor);
+            assertThat(response.getBody()).hasSizeLessThanOrEqualTo(PAGE_SIZE);
+            items.addAll(response.getBody());
+            cursor = response.getHeaders().getFirst(PageCursor.HEADER);
+        } while (cursor != null);
+        return items;
+    }
+}
@@ -0,0 +1,155 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.dal.LikeRepository;
+import ru.yandex.practicum.filmorate.dal.memory.LikeMatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LikeRepository.class, LikeMatrix.class})
+@TestPropertySource(properties = {"filmorate.recommendations.partition-size=8",
+        "filmorate.recommendations.cache.max-entries=16"})
+public class RecommendationApplicationTests {
+    private static final int USERS = 60;
+    private static final int FILMS = 40;
+    private static final String CO_LIKED_FILMS = "SELECT l2.film_id FROM likes l1 " +
+            "JOIN likes l2 ON l1.user_id = l2.user_id AND l1.film_id <> l2.film_id " +
+            "WHERE l1.film_id = ? " +
+            "GROUP BY l2.film_id " +
+            "ORDER BY COUNT(*) DESC, l2.film_id " +
+            "LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TestData testData;
+    private final LikeRepository likeRepository;
+    private final LikeMatrix likeMatrix;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> filmIds = new ArrayList<>();
+
+    @Autowired
+    public RecommendationApplicationTests(JdbcTemplate jdbcTemplate, LikeRepository likeRepository,
+                                          LikeMatrix likeMatrix) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testData = new TestData(jdbcTemplate);
+        this.likeRepository = likeRepository;
+        this.likeMatrix = likeMatrix;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        likeMatrix.invalidate();
+        userIds.addAll(testData.insertUsers("user", USERS));
+        filmIds.addAll(testData.insertFilms("film", FILMS));
+        testData.addRandomLikes(userIds, filmIds, new Random(42), 5);
+    }
+
+    @Test
+    public void testMatrixRecommendationsMatchSql() {
+        assertRecommendationsMatchSql();
+    }
+
+    @Test
+    public void testMatrixFollowsLikeChanges() {
+        assertRecommendationsMatchSql();
+
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            long userId = userIds.get(random.nextInt(USERS));
+            long filmId = filmIds.get(random.nextInt(FILMS));
+            if (testData.removeLike(filmId, userId)) {
+                likeMatrix.likeRemoved(filmId, userId);
+            } else {
+                testData.addLike(filmId, userId);
+                likeMatrix.likeAdded(filmId, userId);
+            }
+        }
+        long deletedFilm = filmIds.get(0);
+        jdbcTemplate.update("DELETE FROM films WHERE film_id = ?", deletedFilm);
+        likeMatrix.filmDeleted(deletedFilm);
+        long deletedUser = userIds.get(0);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", deletedUser);
+        likeMatrix.userDeleted(deletedUser);
+
+        assertRecommendationsMatchSql();
+    }
+
+    @Test
+    public void testSimilarFilmsMatchCoLikeCounts() {
+        assertSimilarFilmsMatchSql();
+
+        long userId = userIds.get(1);
+        for (Long filmId : filmIds.subList(0, 10)) {
+            if (!testData.isLiked(filmId, userId)) {
+                testData.addLike(filmId, userId);
+                likeMatrix.likeAdded(filmId, userId);
+            }
+        }
+
+        assertSimilarFilmsMatchSql();
+    }
+
+    @Test
+    public void testRecommendationCacheIsBounded() {
+        assertRecommendationsMatchSql();
+        assertRecommendationsMatchSql();
+
+        LikeMatrix.CacheStats stats = likeMatrix.getRecommendationCacheStats();
+        assertThat(stats.size()).isLessThanOrEqualTo(16);
+        assertThat(stats.evictions()).isPositive();
+    }
+
+    @Test
+    public void testCommonFilmsMatchSql() {
+        Random random = new Random(11);
+        for (int n = 1; n <= 6; n++) {
+            List<Long> group = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                group.add(userIds.get(random.nextInt(USERS)));
+            }
+            group.add(group.get(0));
+            group.add(userIds.get(USERS - 1) + 1000);
+            for (int minUsers = 1; minUsers <= n + 1; minUsers++) {
+                assertThat(likeMatrix.findCommonFilms(group, minUsers))
+                        .as("Фильмы, понравившиеся %d из пользователей %s", minUsers, group)
+                        .containsExactlyInAnyOrderElementsOf(likeRepository.getCommonFilmsIds(group, minUsers));
+            }
+        }
+    }
+
+    @Test
+    public void testUserWithoutLikesGetsNoRecommendations() {
+        long userId = testData.insertUser("lonely");
+
+        assertThat(likeMatrix.recommend(userId)).isEmpty();
+        assertThat(likeRepository.getRecommendedFilmsIds(userId)).isEmpty();
+    }
+
+    private void assertRecommendationsMatchSql() {
+        for (Long userId : userIds) {
+            assertThat(likeMatrix.recommend(userId))
+                    .as("Рекомендации для пользователя %d", userId)
+                    .containsExactlyInAnyOrderElementsOf(likeRepository.getRecommendedFilmsIds(userId));
+        }
+    }
+
+    private void assertSimilarFilmsMatchSql() {
+        for (Long filmId : filmIds) {
+            assertThat(likeMatrix.findSimilar(filmId, 5))
+                    .as("Похожие фильмы для фильма %d", filmId)
+                    .containsExactlyElementsOf(jdbcTemplate.queryForList(CO_LIKED_FILMS, Long.class, filmId, 5));
+        }
+    }
+}
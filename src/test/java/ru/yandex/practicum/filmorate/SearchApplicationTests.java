@@ -0,0 +1,231 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dal.memory.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.dal.memory.FilmSuggestIndex;
+import ru.yandex.practicum.filmorate.dal.memory.PopularityLeaderboard;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SearchApplicationTests {
+    private static final int USERS = 40;
+    private static final int FILMS = 80;
+    private static final int DIRECTORS = 10;
+    private static final int TOP_SIZE = 5;
+    private static final String SUGGESTIONS = "SELECT f.film_id FROM films f " +
+            "LEFT JOIN likes l ON f.film_id = l.film_id " +
+            "WHERE LOWER(f.name) LIKE ? OR LOWER(f.name) LIKE ? " +
+            "OR f.film_id IN (SELECT db.film_id FROM directed_by db " +
+            "JOIN directors d ON db.director_id = d.director_id " +
+            "WHERE LOWER(d.name) LIKE ? OR LOWER(d.name) LIKE ?) " +
+            "GROUP BY f.film_id " +
+            "ORDER BY COUNT(l.user_id) DESC, f.film_id " +
+            "LIMIT ?";
+    private static final String SEARCH = "SELECT f.film_id FROM films f " +
+            "LEFT JOIN likes l ON f.film_id = l.film_id " +
+            "WHERE (? AND LOWER(f.name) LIKE ?) " +
+            "OR (? AND f.film_id IN (SELECT db.film_id FROM directed_by db " +
+            "JOIN directors d ON db.director_id = d.director_id " +
+            "WHERE LOWER(d.name) LIKE ?)) " +
+            "GROUP BY f.film_id " +
+            "ORDER BY COUNT(l.user_id) DESC, f.film_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TestData testData;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> filmIds = new ArrayList<>();
+    private final Set<String> words = new TreeSet<>();
+
+    @Autowired
+    public SearchApplicationTests(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testData = new TestData(jdbcTemplate);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(42);
+        userIds.addAll(testData.insertUsers("searcher", USERS));
+        List<Long> directorIds = new ArrayList<>();
+        for (int i = 0; i < DIRECTORS; i++) {
+            directorIds.add(testData.insertDirector(randomName(random, 2)));
+        }
+        for (int i = 0; i < FILMS; i++) {
+            long filmId = testData.insertFilm(randomName(random, 1 + random.nextInt(3)));
+            filmIds.add(filmId);
+            if (random.nextBoolean()) {
+                jdbcTemplate.update("INSERT INTO directed_by (director_id, film_id) VALUES (?, ?)",
+                        directorIds.get(random.nextInt(DIRECTORS)), filmId);
+            }
+        }
+        testData.addRandomLikes(userIds, filmIds, random, 4);
+    }
+
+    @Test
+    public void testSuggestionsMatchSql() {
+        FilmSuggestIndex suggestIndex = new FilmSuggestIndex(jdbcTemplate, TOP_SIZE);
+
+        assertSuggestionsMatchSql(suggestIndex);
+    }
+
+    @Test
+    public void testSuggestionsFollowLikeChanges() {
+        FilmSuggestIndex suggestIndex = new FilmSuggestIndex(jdbcTemplate, TOP_SIZE);
+        assertSuggestionsMatchSql(suggestIndex);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            long userId = userIds.get(random.nextInt(USERS));
+            long filmId = filmIds.get(random.nextInt(FILMS));
+            if (testData.removeLike(filmId, userId)) {
+                suggestIndex.likeRemoved(filmId, userId);
+            } else {
+                testData.addLike(filmId, userId);
+                suggestIndex.likeAdded(filmId, userId);
+            }
+        }
+        long deletedFilm = filmIds.get(0);
+        jdbcTemplate.update("DELETE FROM films WHERE film_id = ?", deletedFilm);
+        suggestIndex.removeFilm(deletedFilm);
+        long deletedUser = userIds.get(0);
+        testData.deleteUser(deletedUser);
+        suggestIndex.userDeleted(deletedUser);
+
+        assertSuggestionsMatchSql(suggestIndex);
+    }
+
+    @Test
+    public void testSuggestionsFollowRenames() {
+        FilmSuggestIndex suggestIndex = new FilmSuggestIndex(jdbcTemplate, TOP_SIZE);
+        assertSuggestionsMatchSql(suggestIndex);
+
+        Random random = new Random(11);
+        for (int i = 0; i < 500; i++) {
+            long filmId = filmIds.get(random.nextInt(FILMS));
+            String name = randomName(random, 1 + random.nextInt(3));
+            jdbcTemplate.update("UPDATE films SET name = ? WHERE film_id = ?", name, filmId);
+            suggestIndex.putFilm(filmId, name, jdbcTemplate.queryForList(
+                    "SELECT director_id FROM directed_by WHERE film_id = ?", Long.class, filmId));
+        }
+        List<Long> directorIds = jdbcTemplate.queryForList("SELECT DISTINCT director_id FROM directed_by",
+                Long.class);
+        long renamedDirector = directorIds.get(0);
+        String directorName = randomName(random, 2);
+        jdbcTemplate.update("UPDATE directors SET name = ? WHERE director_id = ?", directorName, renamedDirector);
+        suggestIndex.putDirector(renamedDirector, directorName);
+        long removedDirector = directorIds.get(1);
+        jdbcTemplate.update("DELETE FROM directors WHERE director_id = ?", removedDirector);
+        suggestIndex.removeDirector(removedDirector);
+        long newFilm = testData.insertFilm(randomName(random, 2));
+        filmIds.add(newFilm);
+        suggestIndex.putFilm(newFilm, jdbcTemplate.queryForObject(
+                "SELECT name FROM films WHERE film_id = ?", String.class, newFilm), List.of());
+
+        assertSuggestionsMatchSql(suggestIndex);
+    }
+
+    @Test
+    public void testSearchMatchesSql() {
+        FilmSearchIndex index = new FilmSearchIndex(jdbcTemplate, new PopularityLeaderboard(jdbcTemplate), 0.4, 0.1);
+
+        for (String query : queries()) {
+            for (boolean[] by : new boolean[][]{{true, false}, {false, true}, {true, true}}) {
+                assertThat(index.search(query, by[0], by[1]))
+                        .as("Поиск \"%s\" по названию %s, по режиссёру %s", query, by[0], by[1])
+                        .containsExactlyElementsOf(findBySql(query, by[0], by[1]));
+            }
+        }
+    }
+
+    @Test
+    public void testSearchFollowsFilmChanges() {
+        FilmSearchIndex index = new FilmSearchIndex(jdbcTemplate, new PopularityLeaderboard(jdbcTemplate), 0.4, 0.1);
+        index.search("zzz", true, true);
+
+        Random random = new Random(13);
+        for (int i = 0; i < 20; i++) {
+            long filmId = filmIds.get(random.nextInt(FILMS));
+            String name = randomName(random, 2);
+            jdbcTemplate.update("UPDATE films SET name = ? WHERE film_id = ?", name, filmId);
+            index.putFilm(filmId, name, jdbcTemplate.queryForList(
+                    "SELECT director_id FROM directed_by WHERE film_id = ?", Long.class, filmId));
+        }
+        for (Long deletedFilm : filmIds.subList(0, 10)) {
+            jdbcTemplate.update("DELETE FROM films WHERE film_id = ?", deletedFilm);
+            index.removeFilm(deletedFilm);
+        }
+
+        for (String query : queries()) {
+            assertThat(index.search(query, true, true))
+                    .as("Поиск \"%s\" после изменения фильмов", query)
+                    .containsExactlyElementsOf(findBySql(query, true, true));
+        }
+    }
+
+    @Test
+    public void testFuzzySearchContainsExactMatches() {
+        FilmSearchIndex index = new FilmSearchIndex(jdbcTemplate, new PopularityLeaderboard(jdbcTemplate), 0.4, 0.1);
+
+        for (String query : queries()) {
+            for (boolean[] by : new boolean[][]{{true, false}, {false, true}, {true, true}}) {
+                assertThat(index.searchFuzzy(query, by[0], by[1]))
+                        .as("Нечёткий поиск \"%s\" по названию %s, по режиссёру %s", query, by[0], by[1])
+                        .containsAll(findBySql(query, by[0], by[1]));
+            }
+        }
+    }
+
+    private Set<String> queries() {
+        Set<String> queries = new TreeSet<>(List.of("zzz", "a b", "C D"));
+        Random random = new Random(5);
+        for (String word : words) {
+            int from = random.nextInt(word.length());
+            queries.add(word.substring(from, from + 1 + random.nextInt(word.length() - from)));
+            queries.add(word.toUpperCase());
+        }
+        return queries;
+    }
+
+    private List<Long> findBySql(String query, boolean byTitle, boolean byDirector) {
+        String pattern = "%" + query.toLowerCase() + "%";
+        return jdbcTemplate.queryForList(SEARCH, Long.class, byTitle, pattern, byDirector, pattern);
+    }
+
+    private void assertSuggestionsMatchSql(FilmSuggestIndex suggestIndex) {
+        Set<String> prefixes = new TreeSet<>();
+        for (String word : words) {
+            for (int length = 1; length <= word.length(); length++) {
+                prefixes.add(word.substring(0, length));
+            }
+        }
+        for (String prefix : prefixes) {
+            assertThat(suggestIndex.suggest(prefix, TOP_SIZE).keySet())
+                    .as("Подсказки для префикса \"%s\"", prefix)
+                    .containsExactlyElementsOf(jdbcTemplate.queryForList(SUGGESTIONS, Long.class,
+                            prefix + "%", "% " + prefix + "%", prefix + "%", "% " + prefix + "%", TOP_SIZE));
+        }
+    }
+
+    private String randomName(Random random, int wordCount) {
+        StringJoiner name = new StringJoiner(" ");
+        for (int i = 0; i < wordCount; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(4);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(5)));
+            }
+            words.add(word.toString());
+            name.add(word);
+        }
+        return name.toString();
+    }
+}
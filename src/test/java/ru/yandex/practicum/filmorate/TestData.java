@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class TestData {
+    private static final String INSERT_USER = "INSERT INTO users (email, login, name, birthday) " +
+            "VALUES (?, ?, ?, ?)";
+    private static final String INSERT_FILM = "INSERT INTO films (name, description, release_date, duration, mpa_id) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_DIRECTOR = "INSERT INTO directors (name) VALUES (?)";
+    private static final String INSERT_LIKE = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
+    private static final String INSERT_FRIENDSHIP = "INSERT INTO friendships (user_id, friend_id) VALUES (?, ?)";
+    private static final String IS_LIKED = "SELECT COUNT(*) FROM likes WHERE film_id = ? AND user_id = ?";
+    private static final String SYNC_RATES = "UPDATE films f SET rate = " +
+            "(SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    TestData(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    long insertUser(String login) {
+        return insert(INSERT_USER, login + "@example.com", login, login, Date.valueOf("1990-01-01"));
+    }
+
+    List<Long> insertUsers(String prefix, int count) {
+        List<Long> userIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            userIds.add(insertUser(prefix + i));
+        }
+        return userIds;
+    }
+
+    long insertFilm(String name) {
+        return insertFilm(name, LocalDate.of(2000, 1, 1));
+    }
+
+    long insertFilm(String name, LocalDate releaseDate) {
+        return insert(INSERT_FILM, name, "description", Date.valueOf(releaseDate), 100, 1);
+    }
+
+    List<Long> insertFilms(String prefix, int count) {
+        List<Long> filmIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            filmIds.add(insertFilm(prefix + i));
+        }
+        return filmIds;
+    }
+
+    long insertDirector(String name) {
+        return insert(INSERT_DIRECTOR, name);
+    }
+
+    void addLike(long filmId, long userId) {
+        jdbcTemplate.update(INSERT_LIKE, filmId, userId);
+        jdbcTemplate.update("UPDATE films SET rate = COALESCE(rate, 0) + 1 WHERE film_id = ?", filmId);
+    }
+
+    boolean removeLike(long filmId, long userId) {
+        if (jdbcTemplate.update("DELETE FROM likes WHERE film_id = ? AND user_id = ?", filmId, userId) == 0) {
+            return false;
+        }
+        jdbcTemplate.update("UPDATE films SET rate = COALESCE(rate, 0) - 1 WHERE film_id = ?", filmId);
+        return true;
+    }
+
+    void deleteUser(long userId) {
+        jdbcTemplate.update("UPDATE films SET rate = COALESCE(rate, 0) - 1 " +
+                "WHERE film_id IN (SELECT film_id FROM likes WHERE user_id = ?)", userId);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", userId);
+    }
+
+    boolean isLiked(long filmId, long userId) {
+        return jdbcTemplate.queryForObject(IS_LIKED, Integer.class, filmId, userId) > 0;
+    }
+
+    void addRandomLikes(List<Long> userIds, List<Long> filmIds, Random random, int oneIn) {
+        for (Long userId : userIds) {
+            for (Long filmId : filmIds) {
+                if (random.nextInt(oneIn) == 0) {
+                    jdbcTemplate.update(INSERT_LIKE, filmId, userId);
+                }
+            }
+        }
+        jdbcTemplate.update(SYNC_RATES);
+    }
+
+    void addRandomFriendships(List<Long> userIds, Random random, int oneIn) {
+        for (Long userId : userIds) {
+            for (Long friendId : userIds) {
+                if (!userId.equals(friendId) && random.nextInt(oneIn) == 0) {
+                    addFriendship(userId, friendId);
+                }
+            }
+        }
+    }
+
+    void addFriendship(long userId, long friendId) {
+        jdbcTemplate.update(INSERT_FRIENDSHIP, userId, friendId);
+    }
+
+    long insert(String sql, Object... params) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
@@ -1,41 +1,142 @@
 package ru.yandex.practicum.filmorate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
-import ru.yandex.practicum.filmorate.dal.UserRepository;
-import ru.yandex.practicum.filmorate.dal.mappers.UserRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.controller.UserController;
+import ru.yandex.practicum.filmorate.dal.*;
+import ru.yandex.practicum.filmorate.dal.mappers.*;
+import ru.yandex.practicum.filmorate.dal.memory.*;
+import ru.yandex.practicum.filmorate.dto.user.RecommendationBatchRequest;
+import ru.yandex.practicum.filmorate.dto.user.UserRecommendationsDto;
 import ru.yandex.practicum.filmorate.model.User;
-import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.service.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
-@Import({UserRepository.class, UserService.class, UserRowMapper.class})
+@Import({UserRepository.class, UserService.class, UserRowMapper.class, FriendsRepository.class, FriendGraph.class,
+        EventRepository.class, EventJournal.class, UserController.class, RecommendationBatchService.class,
+        FilmService.class, FilmRepository.class, FilmRowMapper.class, FilmFullTextRepository.class,
+        LikeRepository.class, LikeWriteBuffer.class, PopularityLeaderboard.class, FilmCache.class,
+        ReferenceDataRegistry.class, GenreRepository.class, GenreRowMapper.class, MpaRepository.class,
+        MpaRowMapper.class, DirectorRepository.class, DirectorRowMapper.class, FilmSearchIndex.class,
+        FilmSuggestIndex.class, LikeMatrix.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = {"filmorate.events.journal.enabled=false",
+        "filmorate.recommendations.batch.chunk-size=4", "filmorate.recommendations.batch.parallelism=3"})
 public class UserApplicationTests {
+    private static final int USERS = 15;
+    private static final int FILMS = 12;
 
+    private final JdbcTemplate jdbcTemplate;
+    private final TestData testData;
     private final UserService userService;
+    private final UserController userController;
+    private final LikeRepository likeRepository;
+    private final LikeMatrix likeMatrix;
+    private final FriendGraph friendGraph;
+    private final ObjectMapper objectMapper;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> filmIds = new ArrayList<>();
+    private long userId;
+    private long friendId;
 
     @Autowired
-    public UserApplicationTests(UserService userService) {
+    public UserApplicationTests(JdbcTemplate jdbcTemplate, UserService userService, UserController userController,
+                                LikeRepository likeRepository, LikeMatrix likeMatrix, FriendGraph friendGraph,
+                                ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.testData = new TestData(jdbcTemplate);
         this.userService = userService;
+        this.userController = userController;
+        this.likeRepository = likeRepository;
+        this.likeMatrix = likeMatrix;
+        this.friendGraph = friendGraph;
+        this.objectMapper = objectMapper;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        userId = testData.insertUser("seeded");
+        friendId = testData.insertUser("seededFriend");
+        userIds.add(userId);
+        userIds.add(friendId);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        filmIds.forEach(filmId -> jdbcTemplate.update("DELETE FROM films WHERE film_id = ?", filmId));
+        userIds.forEach(userId -> jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", userId));
+        likeMatrix.invalidate();
+        friendGraph.invalidate();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testBatchRecommendationsMatchSql() throws IOException {
+        userIds.addAll(testData.insertUsers("batched", USERS));
+        filmIds.addAll(testData.insertFilms("batched", FILMS));
+        testData.addRandomLikes(userIds, filmIds, new Random(42), 3);
+        likeMatrix.invalidate();
+        List<Long> requested = new ArrayList<>(userIds);
+        Collections.shuffle(requested, new Random(7));
+        long missingUser = userIds.get(USERS - 1) + 1000;
+        requested.add(3, missingUser);
+        RecommendationBatchRequest request = new RecommendationBatchRequest();
+        request.setUserIds(requested);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        userController.getRecommendationsBatch(request).getBody().writeTo(body);
+        List<UserRecommendationsDto> lines = new ArrayList<>();
+        for (String line : new String(body.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readValue(line, UserRecommendationsDto.class));
+        }
+
+        assertThat(lines).extracting(UserRecommendationsDto::getUserId).containsExactlyElementsOf(requested);
+        for (UserRecommendationsDto line : lines) {
+            if (line.getUserId() == missingUser) {
+                assertThat(line.getFilmIds()).isEmpty();
+                assertThat(line.getMessage()).isNotNull();
+            } else {
+                assertThat(line.getFilmIds())
+                        .as("Рекомендации для пользователя %d", line.getUserId())
+                        .containsExactlyInAnyOrderElementsOf(likeRepository.getRecommendedFilmsIds(line.getUserId()));
+                assertThat(line.getMessage()).isNull();
+            }
+        }
     }
 
     @Test
     public void testFindUserById() {
-        Optional<User> userOptional = Optional.ofNullable(userService.getUserById(1L));
+        Optional<User> userOptional = Optional.ofNullable(userService.getUserById(userId));
 
         assertThat(userOptional)
                 .isPresent()
                 .hasValueSatisfying(user ->
-                        assertThat(user).hasFieldOrPropertyWithValue("id", 1L)
+                        assertThat(user).hasFieldOrPropertyWithValue("id", userId)
                 );
     }
 
@@ -63,12 +164,12 @@ public class UserApplicationTests {
 
     @Test
     public void testUpdateUser() {
-        User user = new User(1L, "updatedEmail@example.com", "updatedLogin", "updatedName",
+        User user = new User(userId, "updatedEmail@example.com", "updatedLogin", "updatedName",
                 LocalDate.of(1990, 1, 1));
         User updatedUser = userService.updateUser(user);
 
         assertThat(updatedUser).isNotNull();
-        assertThat(updatedUser.getId()).isEqualTo(1L);
+        assertThat(updatedUser.getId()).isEqualTo(userId);
         assertThat(updatedUser.getEmail()).isEqualTo("updatedEmail@example.com");
         assertThat(updatedUser.getLogin()).isEqualTo("updatedLogin");
         assertThat(updatedUser.getName()).isEqualTo("updatedName");
@@ -76,45 +177,48 @@ public class UserApplicationTests {
     }
 
     @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void testAddFriend() {
-        List<User> existingFriends = userService.getFriends(1L);
-        boolean alreadyFriends = existingFriends.stream().anyMatch(friend -> friend.getId().equals(2L));
+        List<User> existingFriends = userService.getFriends(userId);
+        boolean alreadyFriends = existingFriends.stream().anyMatch(friend -> friend.getId().equals(friendId));
         if (!alreadyFriends) {
-            userService.addFriend(1L, 2L);
+            userService.addFriend(userId, friendId);
         }
 
-        List<User> friends = userService.getFriends(1L);
+        List<User> friends = userService.getFriends(userId);
         assertThat(friends).isNotNull();
         assertThat(friends).isNotEmpty();
-        assertThat(friends).anyMatch(friend -> friend.getId().equals(2L));
+        assertThat(friends).anyMatch(friend -> friend.getId().equals(friendId));
     }
 
     @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void testRemoveFriend() {
-        List<User> existingFriends = userService.getFriends(1L);
-        boolean alreadyFriends = existingFriends.stream().anyMatch(friend -> friend.getId().equals(2L));
+        List<User> existingFriends = userService.getFriends(userId);
+        boolean alreadyFriends = existingFriends.stream().anyMatch(friend -> friend.getId().equals(friendId));
         if (!alreadyFriends) {
-            userService.addFriend(1L, 2L);
+            userService.addFriend(userId, friendId);
         }
-        userService.removeFriend(1L, 2L);
+        userService.removeFriend(userId, friendId);
 
-        List<User> friends = userService.getFriends(1L);
+        List<User> friends = userService.getFriends(userId);
         assertThat(friends).isNotNull();
-        assertThat(friends).noneMatch(friend -> friend.getId().equals(2L));
+        assertThat(friends).noneMatch(friend -> friend.getId().equals(friendId));
     }
 
     @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void testGetFriends() {
-        List<User> existingFriends = userService.getFriends(1L);
-        boolean alreadyFriends = existingFriends.stream().anyMatch(friend -> friend.getId().equals(2L));
+        List<User> existingFriends = userService.getFriends(userId);
+        boolean alreadyFriends = existingFriends.stream().anyMatch(friend -> friend.getId().equals(friendId));
         if (!alreadyFriends) {
-            userService.addFriend(1L, 2L);
+            userService.addFriend(userId, friendId);
         }
 
-        List<User> friends = userService.getFriends(1L);
+        List<User> friends = userService.getFriends(userId);
         assertThat(friends).isNotNull();
         assertThat(friends).isNotEmpty();
-        assertThat(friends).anyMatch(friend -> friend.getId().equals(2L));
+        assertThat(friends).anyMatch(friend -> friend.getId().equals(friendId));
     }
 
 }
\ No newline at end of file